@@ -0,0 +1,66 @@
+/**
+ * Distanze tra tutte le coppie di vertici in una matrice double[] per righe (riga = sorgente)
+ * e, per ogni coppia, il primo vertice dopo la sorgente sul cammino minimo, da cui si
+ * ricostruisce il cammino senza altre matrici.
+ */
+public class AllPairsPaths {
+    public static final double INFINITY = Double.POSITIVE_INFINITY;
+    public static final int NONE = -1;
+
+    private final int vertices;
+    private final double[] distance;
+    private final int[] next;
+
+    AllPairsPaths(int vertices, double[] distance, int[] next) {
+        this.vertices = vertices;
+        this.distance = distance;
+        this.next = next;
+    }
+
+    public int vertexCount() {
+        return vertices;
+    }
+
+    public double distance(int source, int target) {
+        return distance[source * vertices + target];
+    }
+
+    /** Vertice successivo a source sul cammino minimo verso target, NONE se non c'e' cammino */
+    public int next(int source, int target) {
+        return next[source * vertices + target];
+    }
+
+    /** Matrice delle distanze per righe, senza copia */
+    public double[] distances() {
+        return distance;
+    }
+
+    /** Matrice dei successori per righe, senza copia */
+    public int[] nextHops() {
+        return next;
+    }
+
+    /** Un vertice con distanza negativa da se stesso sta su un ciclo negativo */
+    public boolean hasNegativeCycle() {
+        for (int v = 0; v < vertices; v++) {
+            if (distance[v * vertices + v] < 0) return true;
+        }
+        return false;
+    }
+
+    /** Vertici del cammino minimo da source a target compresi, null se non esiste o passa per un ciclo negativo */
+    public int[] path(int source, int target) {
+        if (next(source, target) == NONE) return null;
+
+        int length = 1;
+        for (int v = source; v != target; v = next(v, target)) {
+            if (++length > vertices) return null;
+        }
+        int[] path = new int[length];
+        int v = source;
+        for (int i = 0; i < length; i++, v = next(v, target)) {
+            path[i] = v;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.Arrays;
+
+/**
+ * Cammini minimi da una sorgente con pesi anche negativi. Gli archi si copiano una volta in tre
+ * array primitivi (sorgente, destinazione, peso) su cui girano i V - 1 passi di Bellman-Ford,
+ * che si fermano al primo passo senza rilassamenti. In alternativa c'e' la variante a coda (SPFA)
+ * con small-label-first: un vertice migliorato va in testa alla coda se la sua distanza e'
+ * minore di quella della testa. Un ciclo negativo raggiungibile viene restituito nel risultato.
+ */
+public class BellmanFord {
+    private BellmanFord() {
+    }
+
+    public static ShortestPaths compute(IncidenceStore matrix, double[] weights, int source) {
+        return rounds(matrix, weights, ShortestPaths.start(matrix.vertexCount(), source));
+    }
+
+    /**
+     * Come se ci fosse una sorgente in piu' collegata a tutti i vertici con archi di peso 0:
+     * le distanze partono tutte da 0 e alla fine sono potenziali h con w(u, v) + h(u) - h(v) >= 0
+     * per ogni arco. Un ciclo negativo, ovunque sia, viene riportato nel risultato.
+     */
+    public static ShortestPaths potentials(IncidenceStore matrix, double[] weights) {
+        int n = matrix.vertexCount();
+        int[] predecessor = new int[n];
+        Arrays.fill(predecessor, ShortestPaths.NONE);
+        return rounds(matrix, weights, new ShortestPaths(ShortestPaths.NONE, new double[n], predecessor));
+    }
+
+    private static ShortestPaths rounds(IncidenceStore matrix, double[] weights, ShortestPaths result) {
+        int n = matrix.vertexCount();
+        int m = matrix.edgeCount();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] weight = new double[m];
+        for (int i = 0; i < m; i++) {
+            from[i] = matrix.getSource(i);
+            to[i] = matrix.getTarget(i);
+            weight[i] = weights[i];
+        }
+
+        double[] distance = result.distances();
+        int[] predecessor = result.predecessors();
+
+        for (int round = 0; round < n - 1; round++) {
+            boolean relaxed = false;
+            for (int i = 0; i < m; i++) {
+                double candidate = distance[from[i]] + weight[i];
+                if (candidate < distance[to[i]]) {
+                    distance[to[i]] = candidate;
+                    predecessor[to[i]] = from[i];
+                    relaxed = true;
+                }
+            }
+            if (!relaxed) return result;
+        }
+
+        // se al passo V si rilassa ancora un arco, il suo vertice discende da un ciclo negativo
+        for (int i = 0; i < m; i++) {
+            if (distance[from[i]] + weight[i] < distance[to[i]]) {
+                predecessor[to[i]] = from[i];
+                result.setNegativeCycle(cycle(predecessor, to[i], n));
+                break;
+            }
+        }
+        return result;
+    }
+
+    /** SPFA: coda FIFO di vertici migliorati con small-label-first */
+    public static ShortestPaths computeQueue(IncidenceStore matrix, double[] weights, int source) {
+        int n = matrix.vertexCount();
+        ShortestPaths result = ShortestPaths.start(n, source);
+        double[] distance = result.distances();
+        int[] predecessor = result.predecessors();
+        // numero di archi del cammino attuale: se arriva a n il cammino ripete un vertice
+        int[] length = new int[n];
+        boolean[] queued = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int size = 0;
+        queue[0] = source;
+        queued[source] = true;
+        size++;
+
+        while (size > 0) {
+            int vertex = queue[head];
+            head = (head + 1) % n;
+            size--;
+            queued[vertex] = false;
+
+            for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                int col = matrix.outColumn(c);
+                int adjacent = matrix.getTarget(col);
+                double candidate = distance[vertex] + weights[col];
+                if (candidate < distance[adjacent]) {
+                    distance[adjacent] = candidate;
+                    predecessor[adjacent] = vertex;
+                    length[adjacent] = length[vertex] + 1;
+                    if (length[adjacent] >= n) {
+                        // le lunghezze possono essere vecchie: il ciclo si cerca davvero nei predecessori
+                        int[] cycle = cycle(predecessor, adjacent, n);
+                        if (cycle != null) {
+                            result.setNegativeCycle(cycle);
+                            return result;
+                        }
+                        length[adjacent] = 0;
+                    }
+                    if (queued[adjacent]) continue;
+
+                    queued[adjacent] = true;
+                    if (size > 0 && candidate < distance[queue[head]]) {
+                        head = (head - 1 + n) % n;
+                        queue[head] = adjacent;
+                    } else {
+                        queue[(head + size) % n] = adjacent;
+                    }
+                    size++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ciclo nei predecessori a partire da un vertice che ci discende: dopo n passi all'indietro
+     * si e' di sicuro sul ciclo, che poi si percorre una volta e si rovescia.
+     * null se risalendo si arriva alla sorgente.
+     */
+    private static int[] cycle(int[] predecessor, int vertex, int n) {
+        for (int i = 0; i < n; i++) {
+            vertex = predecessor[vertex];
+            if (vertex == ShortestPaths.NONE) return null;
+        }
+        int length = 1;
+        for (int v = predecessor[vertex]; v != vertex; v = predecessor[v]) {
+            length++;
+        }
+        int[] cycle = new int[length];
+        int v = vertex;
+        for (int i = length - 1; i >= 0; i--) {
+            cycle[i] = v;
+            v = predecessor[v];
+        }
+        return cycle;
+    }
+}
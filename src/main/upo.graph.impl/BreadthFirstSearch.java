@@ -0,0 +1,127 @@
+/**
+ * Visita in ampiezza su una {@link IncidenceStore} con la frontiera in un buffer di int:
+ * ogni vertice entra una volta sola, quindi il buffer lungo V non deve mai ricominciare da capo
+ * e i livelli sono segmenti consecutivi [inizio, fine) del buffer.
+ * Oltre alla visita classica (top-down) c'e' la variante direction-optimizing di Beamer:
+ * quando la frontiera ha piu' archi uscenti di quelli ancora da esplorare si passa a bottom-up,
+ * in cui ogni vertice non visitato cerca un genitore tra i propri archi entranti.
+ */
+public class BreadthFirstSearch {
+    /** Soglie di Beamer et al. per passare a bottom-up e per tornare a top-down */
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    private final IncidenceStore matrix;
+    private final int[] queue;
+
+    public BreadthFirstSearch(IncidenceStore matrix) {
+        this.matrix = matrix;
+        this.queue = new int[matrix.vertexCount()];
+    }
+
+    /** Visita classica: colori, genitori e distanza in numero di archi da root */
+    public void visit(int root, VisitState state) {
+        int head = 0;
+        int tail = 0;
+        state.setColor(root, VisitState.GRAY);
+        state.setDistance(root, 0);
+        queue[tail++] = root;
+
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                int adjacent = matrix.getTarget(matrix.outColumn(c));
+                if (state.getColor(adjacent) == VisitState.WHITE) {
+                    state.setColor(adjacent, VisitState.GRAY);
+                    state.setParent(adjacent, vertex);
+                    state.setDistance(adjacent, state.getDistance(vertex) + 1);
+                    queue[tail++] = adjacent;
+                }
+            }
+            state.setColor(vertex, VisitState.BLACK);
+        }
+    }
+
+    /**
+     * Visita per livelli che alterna top-down e bottom-up. Le distanze sono le stesse di
+     * {@link #visit}, il genitore puo' essere un altro vertice del livello precedente.
+     */
+    public void visitDirectionOptimizing(int root, VisitState state) {
+        int n = matrix.vertexCount();
+        int[] outDegree = new int[n];
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            outDegree[matrix.getSource(i)]++;
+        }
+
+        state.setColor(root, VisitState.GRAY);
+        state.setDistance(root, 0);
+        queue[0] = root;
+        int levelStart = 0;
+        int levelEnd = 1;
+        long frontierEdges = outDegree[root];
+        long unexploredEdges = matrix.edgeCount() - outDegree[root];
+        boolean bottomUp = false;
+        int level = 0;
+
+        while (levelStart < levelEnd) {
+            int levelSize = levelEnd - levelStart;
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && levelSize < n / BETA) {
+                bottomUp = false;
+            }
+
+            int tail = bottomUp ? bottomUpStep(state, level, levelEnd) : topDownStep(state, levelStart, levelEnd);
+
+            for (int i = levelStart; i < levelEnd; i++) {
+                state.setColor(queue[i], VisitState.BLACK);
+            }
+            frontierEdges = 0;
+            for (int i = levelEnd; i < tail; i++) {
+                frontierEdges += outDegree[queue[i]];
+            }
+            unexploredEdges -= frontierEdges;
+            levelStart = levelEnd;
+            levelEnd = tail;
+            level++;
+        }
+    }
+
+    private int topDownStep(VisitState state, int levelStart, int levelEnd) {
+        int tail = levelEnd;
+        for (int i = levelStart; i < levelEnd; i++) {
+            int vertex = queue[i];
+            for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                int adjacent = matrix.getTarget(matrix.outColumn(c));
+                if (state.getColor(adjacent) == VisitState.WHITE) {
+                    discover(state, adjacent, vertex);
+                    queue[tail++] = adjacent;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private int bottomUpStep(VisitState state, int level, int levelEnd) {
+        int tail = levelEnd;
+        for (int vertex = 0; vertex < matrix.vertexCount(); vertex++) {
+            if (state.getColor(vertex) != VisitState.WHITE) continue;
+
+            for (int c = matrix.firstIn(vertex); c != -1; c = matrix.nextIn(vertex, c)) {
+                int parent = matrix.getSource(matrix.inColumn(c));
+                if (state.getColor(parent) != VisitState.WHITE && state.getDistance(parent) == level) {
+                    discover(state, vertex, parent);
+                    queue[tail++] = vertex;
+                    break;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private void discover(VisitState state, int vertex, int parent) {
+        state.setColor(vertex, VisitState.GRAY);
+        state.setParent(vertex, parent);
+        state.setDistance(vertex, state.getDistance(parent) + 1);
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Insiemi disgiunti senza lock su un {@link AtomicIntegerArray}, alla Anderson-Woll:
+ * l'unione collega con una CAS la radice di indice maggiore sotto quella di indice minore
+ * (l'ordine fisso tra le radici impedisce i cicli), la ricerca dimezza il cammino con CAS
+ * che, se falliscono, lasciano solo il cammino un po' piu' lungo.
+ * union e find si possono chiamare da piu' thread contemporaneamente.
+ */
+public class ConcurrentUnionFind implements DisjointSets {
+    /** Colonne per task nella scansione parallela degli archi */
+    private static final int EDGES_PER_TASK = 1 << 14;
+
+    private final AtomicIntegerArray parent;
+    private final AtomicInteger count;
+
+    /** Crea n insiemi singoletto {0}, ..., {n - 1} */
+    public ConcurrentUnionFind(int n) {
+        parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+        count = new AtomicInteger(n);
+    }
+
+    /**
+     * Componenti debolmente connesse della memorizzazione: le colonne degli archi sono divise
+     * tra threads thread che fanno le unioni in parallelo. La memorizzazione non deve cambiare nel frattempo.
+     */
+    public static ConcurrentUnionFind of(IncidenceStore matrix, int threads) {
+        if (threads < 1) throw new IllegalArgumentException();
+
+        ConcurrentUnionFind result = new ConcurrentUnionFind(matrix.vertexCount());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(result.new Unite(matrix, 0, matrix.edgeCount()));
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return parent.length();
+    }
+
+    @Override
+    public int count() {
+        return count.get();
+    }
+
+    @Override
+    public int find(int x) {
+        if (x < 0 || x >= parent.length()) throw new IndexOutOfBoundsException(x);
+
+        int p = parent.get(x);
+        while (p != x) {
+            int grandparent = parent.get(p);
+            if (grandparent != p) {
+                parent.compareAndSet(x, p, grandparent);
+            }
+            x = p;
+            p = grandparent;
+        }
+        return x;
+    }
+
+    /** Unisce gli insiemi di a e b, restituisce false se erano gia' lo stesso insieme */
+    public boolean union(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) return false;
+
+            int low = Math.min(a, b);
+            int high = Math.max(a, b);
+            // se high non e' piu' una radice qualcun altro l'ha collegata: si riprova dalle nuove radici
+            if (parent.compareAndSet(high, high, low)) {
+                count.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /** Unioni sulle colonne [from, to), divise a meta' finche' sono piu' di EDGES_PER_TASK */
+    @SuppressWarnings("serial")
+    private class Unite extends RecursiveAction {
+        private final IncidenceStore matrix;
+        private final int from;
+        private final int to;
+
+        Unite(IncidenceStore matrix, int from, int to) {
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= EDGES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    union(matrix.getSource(i), matrix.getTarget(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Unite(matrix, from, middle), new Unite(matrix, middle, to));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.ConcurrentModificationException;
+import java.util.function.IntSupplier;
+
+/**
+ * Componenti debolmente connesse di un grafo, in sola lettura per chi le riceve. Il grafo le tiene
+ * aggiornate con {@link #add()} e {@link #union(int, int)} mentre aggiunge vertici e archi; una
+ * rimozione fa crescere il contatore delle rimozioni del grafo e da li' in poi ogni lettura lancia
+ * ConcurrentModificationException, perche' le componenti potrebbero essersi divise.
+ */
+final class ConnectedComponents implements DisjointSets {
+    private final UnionFind sets;
+    /** Rimozioni fatte dal grafo, lette ad ogni accesso */
+    private final IntSupplier removals;
+    private final int expected;
+
+    private ConnectedComponents(UnionFind sets, IntSupplier removals) {
+        this.sets = sets;
+        this.removals = removals;
+        this.expected = removals.getAsInt();
+    }
+
+    /** Costruisce le componenti con una sola scansione degli archi della memorizzazione */
+    static ConnectedComponents of(IncidenceStore matrix, IntSupplier removals) {
+        UnionFind sets = new UnionFind(matrix.vertexCount());
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            sets.union(matrix.getSource(i), matrix.getTarget(i));
+        }
+        return new ConnectedComponents(sets, removals);
+    }
+
+    /** Segue l'aggiunta di un vertice al grafo */
+    void add() {
+        sets.add();
+    }
+
+    /** Segue l'aggiunta dell'arco a -> b al grafo */
+    void union(int a, int b) {
+        sets.union(a, b);
+    }
+
+    @Override
+    public int size() {
+        check();
+        return sets.size();
+    }
+
+    @Override
+    public int count() {
+        check();
+        return sets.count();
+    }
+
+    @Override
+    public int find(int x) {
+        check();
+        return sets.find(x);
+    }
+
+    private void check() {
+        if (removals.getAsInt() != expected) {
+            throw new ConcurrentModificationException("Il grafo ha rimosso vertici o archi dopo il calcolo delle componenti");
+        }
+    }
+}
@@ -0,0 +1,293 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cammini minimi da una sorgente con il delta-stepping di Meyer e Sanders su un {@link ForkJoinPool}.
+ * I vertici stanno in secchi larghi delta per distanza provvisoria, su un anello di IntList indicizzato
+ * da (distanza / delta) modulo la sua lunghezza; il secchio minimo si svuota
+ * rilassando in parallelo gli archi leggeri (peso &lt;= delta) finche' non rientra nessuno,
+ * poi si rilassano una volta gli archi pesanti dei vertici usciti dal secchio.
+ * Le distanze sono un {@link AtomicLongArray} con i bit dei double: con pesi non negativi
+ * il minimo atomico e' una CAS ripetuta finche' il valore nuovo e' ancora minore.
+ * Con delta piccolo e' vicino a Dijkstra, con delta grande a Bellman-Ford.
+ */
+public class DeltaStepping {
+    /** Vertici della frontiera per task */
+    private static final int VERTICES_PER_TASK = 256;
+    /** Secchi massimi dell'anello */
+    private static final int MAX_RING = 1 << 16;
+    /** Secchi vuoti di fila dopo cui si cerca direttamente il prossimo secchio pieno */
+    private static final int MAX_IDLE = 64;
+    private static final double INFINITY = ShortestPaths.INFINITY;
+
+    private final IncidenceStore matrix;
+    private final double[] weights;
+    private final double delta;
+    private final AtomicLongArray distance;
+
+    private DeltaStepping(IncidenceStore matrix, double[] weights, double delta) {
+        int n = matrix.vertexCount();
+        this.matrix = matrix;
+        this.weights = weights;
+        this.delta = delta;
+        this.distance = new AtomicLongArray(n);
+        long infinity = Double.doubleToRawLongBits(INFINITY);
+        for (int v = 0; v < n; v++) {
+            distance.set(v, infinity);
+        }
+    }
+
+    /**
+     * I pesi devono essere non negativi (altrimenti UnsupportedOperationException) e la memorizzazione
+     * non deve cambiare durante il calcolo. Le distanze sono le stesse di {@link Dijkstra}, a meno
+     * dell'ordine in cui si sommano i pesi di cammini minimi diversi.
+     */
+    public static ShortestPaths compute(IncidenceStore matrix, double[] weights, int source, double delta, ForkJoinPool pool) {
+        if (!(delta > 0)) throw new IllegalArgumentException("delta deve essere positivo");
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            if (weights[i] < 0) throw new UnsupportedOperationException("Il delta-stepping non ammette pesi negativi");
+        }
+
+        matrix.compact();
+        DeltaStepping search = new DeltaStepping(matrix, weights, delta);
+        search.run(source, pool);
+        return search.result(source);
+    }
+
+    private void run(int source, ForkJoinPool pool) {
+        int n = matrix.vertexCount();
+        // i secchi possono contenere vertici ripetuti, gia' passati a un secchio minore (da scartare)
+        // o, se l'anello e' piu' corto di maxWeight / delta, di un giro successivo (da lasciare dove sono)
+        IntList[] buckets = new IntList[ringSize()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntList();
+        }
+        long queued = 1;
+        long current = 0;
+        int idle = 0;
+        int[] mark = new int[n];
+        int[] settledMark = new int[n];
+        int round = 0;
+        int bucketRound = 0;
+
+        distance.set(source, Double.doubleToRawLongBits(0));
+        buckets[0].add(source);
+
+        while (queued > 0) {
+            int slot = (int) (current % buckets.length);
+            IntList entries = buckets[slot];
+            IntList later = entries.size == 0 ? entries : new IntList();
+            round++;
+            IntList frontier = new IntList();
+            for (int i = 0; i < entries.size; i++) {
+                int v = entries.items[i];
+                long b = bucket(v);
+                if (b > current) {
+                    later.add(v);
+                } else if (b == current && mark[v] != round) {
+                    mark[v] = round;
+                    frontier.add(v);
+                }
+            }
+            queued -= entries.size - later.size;
+            buckets[slot] = later;
+
+            if (frontier.size == 0) {
+                // troppi secchi vuoti di fila (pesi grandi rispetto a delta): si salta al prossimo pieno
+                if (++idle == MAX_IDLE) {
+                    current = nextBucket(buckets, current);
+                    // restano solo vertici superati: non c'e' piu' niente da rilassare
+                    if (current == Long.MAX_VALUE) break;
+                    idle = 0;
+                } else {
+                    current++;
+                }
+                continue;
+            }
+            idle = 0;
+            bucketRound++;
+            IntList settled = new IntList();
+
+            while (frontier.size > 0) {
+                for (int i = 0; i < frontier.size; i++) {
+                    int v = frontier.items[i];
+                    if (settledMark[v] != bucketRound) {
+                        settledMark[v] = bucketRound;
+                        settled.add(v);
+                    }
+                }
+
+                IntList updated = pool.invoke(new Relax(frontier, 0, frontier.size, true));
+                round++;
+                IntList next = new IntList();
+                for (int i = 0; i < updated.size; i++) {
+                    int v = updated.items[i];
+                    if (mark[v] == round) continue;
+                    mark[v] = round;
+                    long b = bucket(v);
+                    if (b == current) {
+                        next.add(v);
+                    } else {
+                        buckets[(int) (b % buckets.length)].add(v);
+                        queued++;
+                    }
+                }
+                frontier = next;
+            }
+
+            IntList updated = pool.invoke(new Relax(settled, 0, settled.size, false));
+            round++;
+            for (int i = 0; i < updated.size; i++) {
+                int v = updated.items[i];
+                if (mark[v] == round) continue;
+                mark[v] = round;
+                buckets[(int) (bucket(v) % buckets.length)].add(v);
+                queued++;
+            }
+            current++;
+        }
+    }
+
+    /**
+     * Secchi dell'anello: da un secchio si arriva al massimo maxWeight / delta secchi piu' avanti,
+     * quindi con ceil(maxWeight / delta) + 1 secchi ogni secchio pieno ha un posto suo.
+     * Con delta molto piccolo rispetto ai pesi l'anello si ferma a MAX_RING e un posto puo'
+     * contenere secchi di giri diversi.
+     */
+    private int ringSize() {
+        double maxWeight = 0;
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            if (weights[i] != INFINITY) maxWeight = Math.max(maxWeight, weights[i]);
+        }
+        return (int) Math.max(1, Math.min(Math.ceil(maxWeight / delta) + 1, MAX_RING));
+    }
+
+    /** Secchio minimo dopo current tra i vertici in attesa; quelli in secchi gia' passati sono superati */
+    private long nextBucket(IntList[] buckets, long current) {
+        long next = Long.MAX_VALUE;
+        for (IntList entries : buckets) {
+            for (int i = 0; i < entries.size; i++) {
+                long b = bucket(entries.items[i]);
+                if (b > current) next = Math.min(next, b);
+            }
+        }
+        return next;
+    }
+
+    private double distance(int vertex) {
+        return Double.longBitsToDouble(distance.get(vertex));
+    }
+
+    private long bucket(int vertex) {
+        return (long) Math.floor(distance(vertex) / delta);
+    }
+
+    /** Minimo atomico: true se la distanza di vertex e' stata abbassata a candidate */
+    private boolean lower(int vertex, double candidate) {
+        long bits = Double.doubleToRawLongBits(candidate);
+        long current = distance.get(vertex);
+        while (candidate < Double.longBitsToDouble(current)) {
+            if (distance.compareAndSet(vertex, current, bits)) return true;
+            current = distance.get(vertex);
+        }
+        return false;
+    }
+
+    /** Rilassa gli archi leggeri o pesanti di frontier[from, to), restituisce i vertici abbassati */
+    @SuppressWarnings("serial")
+    private class Relax extends RecursiveTask<IntList> {
+        private final IntList frontier;
+        private final int from;
+        private final int to;
+        private final boolean light;
+
+        Relax(IntList frontier, int from, int to, boolean light) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from > VERTICES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                Relax left = new Relax(frontier, from, middle, light);
+                left.fork();
+                IntList right = new Relax(frontier, middle, to, light).compute();
+                IntList result = left.join();
+                result.addAll(right);
+                return result;
+            }
+
+            IntList updated = new IntList();
+            for (int i = from; i < to; i++) {
+                int vertex = frontier.items[i];
+                double d = distance(vertex);
+                for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                    int col = matrix.outColumn(c);
+                    double w = weights[col];
+                    if ((w <= delta) != light) continue;
+
+                    int adjacent = matrix.getTarget(col);
+                    if (lower(adjacent, d + w)) updated.add(adjacent);
+                }
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * I predecessori non si scrivono insieme alle distanze (due CAS separate non sarebbero coerenti):
+     * a distanze finite si visita da source il sottografo degli archi con d(u) + w == d(v),
+     * che contiene i cammini minimi e non ha cicli verso vertici non raggiungibili.
+     */
+    private ShortestPaths result(int source) {
+        int n = matrix.vertexCount();
+        ShortestPaths result = ShortestPaths.start(n, source);
+        double[] d = result.distances();
+        int[] predecessor = result.predecessors();
+        for (int v = 0; v < n; v++) {
+            d[v] = distance(v);
+        }
+
+        boolean[] visited = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        visited[source] = true;
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                int col = matrix.outColumn(c);
+                int adjacent = matrix.getTarget(col);
+                if (!visited[adjacent] && d[adjacent] != INFINITY && d[vertex] + weights[col] == d[adjacent]) {
+                    visited[adjacent] = true;
+                    predecessor[adjacent] = vertex;
+                    queue[tail++] = adjacent;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Lista di int che cresce raddoppiando */
+    private static final class IntList {
+        private int[] items = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > items.length) items = Arrays.copyOf(items, Math.max(size + other.size, size * 2));
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+        }
+    }
+}
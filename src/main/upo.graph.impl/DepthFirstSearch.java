@@ -0,0 +1,95 @@
+/**
+ * Visita in profondita' iterativa su una {@link IncidenceStore}: al posto della ricorsione
+ * usa uno stack di int e, per ogni vertice aperto, il cursore sul prossimo arco uscente,
+ * quindi non va in StackOverflowError neanche su cammini lunghi milioni di vertici.
+ * Tempi di inizio/fine, genitori e colori sono gli stessi della versione ricorsiva;
+ * il tempo prosegue tra una chiamata e l'altra, come serve per le foreste.
+ */
+public class DepthFirstSearch {
+    private final IncidenceStore matrix;
+    private final int[] stack;
+    private final int[] cursor;
+    private final int[] finished;
+    private int finishedCount;
+    private int time;
+
+    public DepthFirstSearch(IncidenceStore matrix) {
+        this.matrix = matrix;
+        this.stack = new int[matrix.vertexCount()];
+        this.cursor = new int[matrix.vertexCount()];
+        this.finished = new int[matrix.vertexCount()];
+        this.finishedCount = 0;
+        this.time = 0;
+    }
+
+    /** Visita i vertici raggiungibili da root ancora WHITE, registrando tempi, genitori e ordine di fine */
+    public void visit(int root, VisitState state) {
+        int top = open(root, state, 0);
+
+        while (top > 0) {
+            int vertex = stack[top - 1];
+            int c = cursor[vertex];
+            if (c == -1) {
+                top--;
+                close(vertex, state);
+                continue;
+            }
+            cursor[vertex] = matrix.nextOut(vertex, c);
+
+            int adjacent = matrix.getTarget(matrix.outColumn(c));
+            if (state.getColor(adjacent) == VisitState.WHITE) {
+                state.setParent(adjacent, vertex);
+                top = open(adjacent, state, top);
+            }
+        }
+    }
+
+    /** Come {@link #visit}, ma si ferma appena trova un arco verso un vertice GRAY (un ciclo) */
+    public boolean findCycle(int root, VisitState state) {
+        int top = open(root, state, 0);
+
+        while (top > 0) {
+            int vertex = stack[top - 1];
+            int c = cursor[vertex];
+            if (c == -1) {
+                top--;
+                close(vertex, state);
+                continue;
+            }
+            cursor[vertex] = matrix.nextOut(vertex, c);
+
+            int adjacent = matrix.getTarget(matrix.outColumn(c));
+            byte color = state.getColor(adjacent);
+            if (color == VisitState.WHITE) {
+                state.setParent(adjacent, vertex);
+                top = open(adjacent, state, top);
+            } else if (color == VisitState.GRAY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int open(int vertex, VisitState state, int top) {
+        state.setColor(vertex, VisitState.GRAY);
+        state.setStartTime(vertex, ++time);
+        cursor[vertex] = matrix.firstOut(vertex);
+        stack[top] = vertex;
+        return top + 1;
+    }
+
+    private void close(int vertex, VisitState state) {
+        state.setColor(vertex, VisitState.BLACK);
+        state.setEndTime(vertex, ++time);
+        finished[finishedCount++] = vertex;
+    }
+
+    /** Vertici nell'ordine in cui sono diventati BLACK, validi fino a {@link #finishedCount()} */
+    public int[] finishOrder() {
+        return finished;
+    }
+
+    public int finishedCount() {
+        return finishedCount;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Cammini minimi da una sorgente con Dijkstra su una {@link IncidenceStore} con i pesi per colonna.
+ * La frontiera e' una coda indicizzata con decreaseKey ({@link IndexedBinaryHeap} o
+ * {@link PairingHeap}), quindi ogni vertice entra una volta sola e il rilassamento non crea oggetti.
+ */
+public class Dijkstra {
+    private Dijkstra() {
+    }
+
+    /** I pesi devono essere non negativi, altrimenti UnsupportedOperationException */
+    public static ShortestPaths compute(IncidenceStore matrix, double[] weights, int source, boolean pairingHeap) {
+        checkWeights(matrix, weights);
+        return compute(matrix, weights, source, pairingHeap, false);
+    }
+
+    /** Senza il controllo dei pesi, per chi li ha gia' resi non negativi (Johnson) */
+    static ShortestPaths computeNonNegative(IncidenceStore matrix, double[] weights, int source) {
+        return compute(matrix, weights, source, false, false);
+    }
+
+    /**
+     * Distanze di tutti i vertici verso target, seguendo gli archi entranti; il predecessore
+     * di un vertice e' il successivo sul cammino minimo verso target.
+     */
+    public static ShortestPaths computeReverse(IncidenceStore matrix, double[] weights, int target) {
+        checkWeights(matrix, weights);
+        return compute(matrix, weights, target, false, true);
+    }
+
+    private static void checkWeights(IncidenceStore matrix, double[] weights) {
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            if (weights[i] < 0) throw new UnsupportedOperationException("Dijkstra non ammette pesi negativi");
+        }
+    }
+
+    private static ShortestPaths compute(IncidenceStore matrix, double[] weights, int source, boolean pairingHeap, boolean reverse) {
+        int n = matrix.vertexCount();
+        ShortestPaths result = ShortestPaths.start(n, source);
+        double[] distance = result.distances();
+        int[] predecessor = result.predecessors();
+        IndexedPriorityQueue queue = pairingHeap ? new PairingHeap(n) : new IndexedBinaryHeap(n);
+        queue.insert(source, 0);
+
+        while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+            double d = distance[vertex];
+            for (int c = reverse ? matrix.firstIn(vertex) : matrix.firstOut(vertex); c != -1;
+                 c = reverse ? matrix.nextIn(vertex, c) : matrix.nextOut(vertex, c)) {
+                int col = reverse ? matrix.inColumn(c) : matrix.outColumn(c);
+                int adjacent = reverse ? matrix.getSource(col) : matrix.getTarget(col);
+                double candidate = d + weights[col];
+                if (candidate < distance[adjacent]) {
+                    distance[adjacent] = candidate;
+                    predecessor[adjacent] = vertex;
+                    if (queue.contains(adjacent)) {
+                        queue.decreaseKey(adjacent, candidate);
+                    } else {
+                        queue.insert(adjacent, candidate);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,47 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Insiemi disgiunti sugli elementi 0, ..., size() - 1, letti attraverso il rappresentante */
+public interface DisjointSets {
+    /** Numero di elementi */
+    int size();
+
+    /** Numero di insiemi disgiunti */
+    int count();
+
+    /** Rappresentante dell'insieme di x */
+    int find(int x);
+
+    default boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /** Id dell'insieme di ogni elemento, compatti tra 0 e count() - 1 in ordine di primo elemento */
+    default int[] componentIds() {
+        int size = size();
+        int[] ids = new int[size];
+        int[] label = new int[size];
+        Arrays.fill(label, -1);
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            int root = find(i);
+            if (label[root] == -1) label[root] = next++;
+            ids[i] = label[root];
+        }
+        return ids;
+    }
+
+    /** Gli insiemi come Set&lt;Set&lt;Integer&gt;&gt;, costruiti ad ogni chiamata */
+    default Set<Set<Integer>> asSets() {
+        int[] ids = componentIds();
+        List<Set<Integer>> sets = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == sets.size()) sets.add(new HashSet<>());
+            sets.get(ids[i]).add(i);
+        }
+        return new HashSet<>(sets);
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * Tabella hash ad indirizzamento aperto (scansione lineare) che associa ad ogni arco,
+ * codificato con {@link EdgeKey}, la sua colonna nella matrice di incidenza.
+ */
+public class EdgeIndex {
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] columns;
+    private int size;
+    private int mask;
+
+    public EdgeIndex() {
+        allocate(16);
+    }
+
+    /** Dimensiona la tabella per contenere expected archi senza ridimensionamenti */
+    public EdgeIndex(int expected) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) << 1));
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        columns = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Restituisce la colonna associata all'arco, -1 se assente */
+    public int get(long key) {
+        for (int i = slot(key); keys[i] != EMPTY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return columns[i];
+            }
+        }
+        return -1;
+    }
+
+    public void put(long key, int column) {
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                columns[i] = column;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        columns[i] = column;
+        size++;
+
+        if (size * 2 > keys.length) {
+            long[] oldKeys = keys;
+            int[] oldColumns = columns;
+            allocate(oldKeys.length * 2);
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != EMPTY) {
+                    put(oldKeys[j], oldColumns[j]);
+                }
+            }
+        }
+    }
+
+    public void remove(long key) {
+        int i = slot(key);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) return;
+            i = (i + 1) & mask;
+        }
+
+        // cancellazione con spostamento all'indietro: nessuna lapide da gestire
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == EMPTY) break;
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                columns[i] = columns[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        size--;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+}
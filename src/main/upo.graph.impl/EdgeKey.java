@@ -0,0 +1,35 @@
+import upo.graph.base.Edge;
+
+/**
+ * Arco codificato in un long, (source << 32) | target, senza allocazioni.
+ * Gli oggetti {@link Edge} servono solo ai metodi dell'interfaccia, e i grafi li creano
+ * solo in getEdges.
+ */
+public final class EdgeKey {
+    private EdgeKey() {
+    }
+
+    public static long pack(int source, int target) {
+        return ((long) source << 32) | (target & 0xFFFFFFFFL);
+    }
+
+    public static long of(Edge edge) {
+        return pack(edge.getSource(), edge.getTarget());
+    }
+
+    public static int source(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    public static int target(long edge) {
+        return (int) edge;
+    }
+
+    /**
+     * L'oggetto {@link Edge} della libreria, che scorre e aggiorna il suo insieme globale di archi:
+     * costa O(archi creati finora) e non va chiamato da piu' thread insieme.
+     */
+    public static Edge toEdge(long edge) {
+        return Edge.getEdgeByVertexes(source(edge), target(edge));
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Floyd-Warshall a blocchi su una matrice double[] per righe. Per ogni blocco k di BLOCK vertici
+ * intermedi si aggiorna prima il blocco diagonale, poi i blocchi della sua riga e della sua colonna,
+ * che dipendono solo dal diagonale, e infine tutti gli altri, che dipendono solo da riga e colonna.
+ * Ogni aggiornamento tocca tre blocchi di BLOCK x BLOCK double, che stanno in cache; i blocchi
+ * della seconda e della terza fase sono indipendenti e con un pool si aggiornano in parallelo.
+ */
+public class FloydWarshall {
+    /** 64 x 64 double = 32 KB per blocco */
+    private static final int BLOCK = 64;
+
+    private final int n;
+    private final double[] distance;
+    private final int[] next;
+
+    private FloydWarshall(int n, double[] distance, int[] next) {
+        this.n = n;
+        this.distance = distance;
+        this.next = next;
+    }
+
+    /** Con pool null si lavora nel thread chiamante */
+    public static AllPairsPaths compute(IncidenceStore matrix, double[] weights, ForkJoinPool pool) {
+        int n = matrix.vertexCount();
+        if ((long) n * n > Integer.MAX_VALUE) throw new UnsupportedOperationException("Troppi vertici per la matrice delle distanze");
+
+        double[] distance = new double[n * n];
+        int[] next = new int[n * n];
+        Arrays.fill(distance, AllPairsPaths.INFINITY);
+        Arrays.fill(next, AllPairsPaths.NONE);
+        for (int v = 0; v < n; v++) {
+            distance[v * n + v] = 0;
+            next[v * n + v] = v;
+        }
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            int cell = matrix.getSource(i) * n + matrix.getTarget(i);
+            if (weights[i] < distance[cell]) {
+                distance[cell] = weights[i];
+                next[cell] = matrix.getTarget(i);
+            }
+        }
+
+        FloydWarshall fw = new FloydWarshall(n, distance, next);
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        for (int k = 0; k < blocks; k++) {
+            fw.update(k, k, k);
+
+            List<int[]> cross = new ArrayList<>();
+            for (int b = 0; b < blocks; b++) {
+                if (b == k) continue;
+                cross.add(new int[]{k, b});
+                cross.add(new int[]{b, k});
+            }
+            fw.updateAll(cross, k, pool);
+
+            List<int[]> rest = new ArrayList<>();
+            for (int i = 0; i < blocks; i++) {
+                for (int j = 0; j < blocks; j++) {
+                    if (i != k && j != k) rest.add(new int[]{i, j});
+                }
+            }
+            fw.updateAll(rest, k, pool);
+        }
+        return new AllPairsPaths(n, distance, next);
+    }
+
+    private void updateAll(List<int[]> tiles, int k, ForkJoinPool pool) {
+        if (pool == null) {
+            for (int[] tile : tiles) {
+                update(tile[0], tile[1], k);
+            }
+            return;
+        }
+        if (!tiles.isEmpty()) pool.invoke(new Tiles(tiles, 0, tiles.size(), k));
+    }
+
+    /** Blocchi tiles[from, to) con i vertici intermedi del blocco k, divisi a meta' finche' ne resta uno */
+    @SuppressWarnings("serial")
+    private class Tiles extends RecursiveAction {
+        private final List<int[]> tiles;
+        private final int from;
+        private final int to;
+        private final int k;
+
+        Tiles(List<int[]> tiles, int from, int to, int k) {
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int[] tile = tiles.get(from);
+                update(tile[0], tile[1], k);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Tiles(tiles, from, middle, k), new Tiles(tiles, middle, to, k));
+        }
+    }
+
+    /** Blocco (bi, bj) con i vertici intermedi del blocco bk */
+    private void update(int bi, int bj, int bk) {
+        int iEnd = Math.min(n, (bi + 1) * BLOCK);
+        int jStart = bj * BLOCK;
+        int jEnd = Math.min(n, jStart + BLOCK);
+        int kEnd = Math.min(n, (bk + 1) * BLOCK);
+
+        for (int k = bk * BLOCK; k < kEnd; k++) {
+            int rowK = k * n;
+            for (int i = bi * BLOCK; i < iEnd; i++) {
+                int rowI = i * n;
+                double throughK = distance[rowI + k];
+                if (throughK == AllPairsPaths.INFINITY) continue;
+
+                int hop = next[rowI + k];
+                for (int j = jStart; j < jEnd; j++) {
+                    double candidate = throughK + distance[rowK + j];
+                    if (candidate < distance[rowI + j]) {
+                        distance[rowI + j] = candidate;
+                        next[rowI + j] = hop;
+                    }
+                }
+            }
+        }
+    }
+}
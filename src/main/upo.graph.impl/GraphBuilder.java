@@ -0,0 +1,169 @@
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * Costruzione in blocco di un grafo: gli archi si accumulano in array primitivi e con
+ * {@link #buildGraph()} o {@link #buildWeightedGraph()} vengono validati, ordinati per
+ * (source, target) con due passate di counting sort e privati dei duplicati in una sola
+ * scansione. La memorizzazione viene poi creata direttamente della dimensione finale,
+ * senza passare da addVertex/addEdge.
+ * Come in addEdge, di un arco ripetuto vale la prima occorrenza (e il suo peso).
+ */
+public class GraphBuilder {
+    private final int vertices;
+    private int[] sources;
+    private int[] targets;
+    private double[] weights;
+    private int size;
+    private boolean sparse;
+
+    public GraphBuilder(int vertices) {
+        if (vertices < 0) throw new IllegalArgumentException();
+        this.vertices = vertices;
+        this.sources = new int[16];
+        this.targets = new int[16];
+        this.size = 0;
+        this.sparse = true;
+    }
+
+    /** Con false il grafo usa la matrice densa predefinita della sua classe */
+    public GraphBuilder sparse(boolean sparse) {
+        this.sparse = sparse;
+        return this;
+    }
+
+    public GraphBuilder addEdge(int source, int target) {
+        ensureCapacity(size + 1);
+        sources[size] = source;
+        targets[size] = target;
+        if (weights != null) {
+            weights[size] = IncidMatrixDirWeight.INFINITY;
+        }
+        size++;
+        return this;
+    }
+
+    public GraphBuilder addEdge(int source, int target, double weight) {
+        ensureWeights();
+        addEdge(source, target);
+        weights[size - 1] = weight;
+        return this;
+    }
+
+    public GraphBuilder addEdges(int[] sources, int[] targets) {
+        if (sources.length != targets.length) throw new IllegalArgumentException();
+        ensureCapacity(size + sources.length);
+        System.arraycopy(sources, 0, this.sources, size, sources.length);
+        System.arraycopy(targets, 0, this.targets, size, targets.length);
+        if (weights != null) {
+            Arrays.fill(weights, size, size + sources.length, IncidMatrixDirWeight.INFINITY);
+        }
+        size += sources.length;
+        return this;
+    }
+
+    public GraphBuilder addEdges(int[] sources, int[] targets, double[] weights) {
+        if (sources.length != weights.length) throw new IllegalArgumentException();
+        ensureWeights();
+        addEdges(sources, targets);
+        System.arraycopy(weights, 0, this.weights, size - weights.length, weights.length);
+        return this;
+    }
+
+    /** Archi codificati con {@link EdgeKey} */
+    public GraphBuilder addEdges(LongStream edges) {
+        edges.forEachOrdered(e -> addEdge(EdgeKey.source(e), EdgeKey.target(e)));
+        return this;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > sources.length) {
+            int length = Math.max(capacity, sources.length * 2);
+            sources = Arrays.copyOf(sources, length);
+            targets = Arrays.copyOf(targets, length);
+            if (weights != null) {
+                weights = Arrays.copyOf(weights, length);
+            }
+        }
+    }
+
+    private void ensureWeights() {
+        if (weights == null) {
+            weights = new double[sources.length];
+            Arrays.fill(weights, 0, size, IncidMatrixDirWeight.INFINITY);
+        }
+    }
+
+    public IncidMatrixDir buildGraph() throws IllegalArgumentException {
+        int[] order = sortedUniqueEdges();
+        return new IncidMatrixDir(createStore(order, false));
+    }
+
+    public IncidMatrixDirWeight buildWeightedGraph() throws IllegalArgumentException {
+        int[] order = sortedUniqueEdges();
+        double[] columnWeights = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            columnWeights[i] = weights != null ? weights[order[i]] : IncidMatrixDirWeight.INFINITY;
+        }
+        return new IncidMatrixDirWeight(createStore(order, true), columnWeights);
+    }
+
+    private IncidenceStore createStore(int[] order, boolean weighted) {
+        int[] source = new int[order.length];
+        int[] target = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            source[i] = sources[order[i]];
+            target[i] = targets[order[i]];
+        }
+        if (sparse) {
+            return new SparseIncidenceStore(vertices, source, target);
+        }
+        return weighted ? new PackedIncidenceStore(vertices, source, target) : new MatrixIncidenceStore(vertices, source, target);
+    }
+
+    /**
+     * Restituisce le posizioni degli archi da tenere, ordinate per (source, target).
+     * L'ordinamento e' stabile, quindi tra archi uguali resta per primo quello inserito prima.
+     */
+    private int[] sortedUniqueEdges() throws IllegalArgumentException {
+        for (int i = 0; i < size; i++) {
+            if (sources[i] < 0 || sources[i] >= vertices || targets[i] < 0 || targets[i] >= vertices)
+                throw new IllegalArgumentException();
+        }
+
+        int[] byTarget = countingSort(identity(size), targets);
+        int[] order = countingSort(byTarget, sources);
+
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            int e = order[i];
+            if (unique == 0 || sources[order[unique - 1]] != sources[e] || targets[order[unique - 1]] != targets[e]) {
+                order[unique++] = e;
+            }
+        }
+        return Arrays.copyOf(order, unique);
+    }
+
+    private int[] countingSort(int[] input, int[] key) {
+        int[] count = new int[vertices + 1];
+        for (int e : input) {
+            count[key[e] + 1]++;
+        }
+        for (int v = 0; v < vertices; v++) {
+            count[v + 1] += count[v];
+        }
+        int[] output = new int[input.length];
+        for (int e : input) {
+            output[count[key[e]]++] = e;
+        }
+        return output;
+    }
+
+    private static int[] identity(int n) {
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = i;
+        }
+        return result;
+    }
+}
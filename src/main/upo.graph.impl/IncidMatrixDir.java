@@ -2,36 +2,49 @@ import upo.graph.base.Edge;
 import upo.graph.base.VisitResult;
 import upo.graph.base.Graph;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /** Implementazione di una matrice di incidenza orientata */
 public class IncidMatrixDir implements Graph {
-    private int numberOfVertices;
-    private int numberOfEdge;
-    private ArrayList<ArrayList<Incidence>> matrix;
+    private final IncidenceStore matrix;
+    /** Colonna di ogni arco, per trovarlo in tempo costante atteso */
+    private final EdgeIndex index;
+    private VisitState state;
+    /** Componenti debolmente connesse, aggiornate da addVertex/addEdge; null finche' non servono o dopo una rimozione */
+    private ConnectedComponents components;
+    /** Vertici e archi rimossi finora, per invalidare le componenti gia' restituite */
+    private int removals;
+    /** Oggetti Edge per colonna gia' creati da getEdges, null dove non ancora chiesti */
+    private Edge[] edgeObjects;
 
     public IncidMatrixDir() {
-        this.numberOfVertices = 0;
-        this.numberOfEdge = 0;
-        this.matrix = new ArrayList<>();
+        this(new MatrixIncidenceStore());
+    }
+
+    /**
+     * Permette di scegliere la memorizzazione, ad esempio {@link SparseIncidenceStore} per grafi grandi.
+     * La memorizzazione puo' essere gia' riempita, per esempio da {@link GraphBuilder}.
+     */
+    public IncidMatrixDir(IncidenceStore store) {
+        this.matrix = store;
+        this.index = new EdgeIndex(store.edgeCount());
+        rebuildIndex();
     }
 
     @Override
     public int addVertex() {
-        ArrayList<Incidence> newVertex = new ArrayList<>();
-        for (int i = 0; i < numberOfEdge; i++) {
-            newVertex.add(Incidence.NONE);
-        }
-        matrix.add(newVertex);
-        numberOfVertices++;
-
-        return numberOfVertices - 1;
+        int vertex = matrix.addVertex();
+        if (components != null) components.add();
+        return vertex;
     }
 
     @Override
     public Set<Integer> getVertices() {
         HashSet<Integer> vertices = new HashSet<>();
-        for (int i = 0; i < numberOfVertices; i++) {
+        for (int i = 0; i < matrix.vertexCount(); i++) {
             vertices.add(i);
         }
         return vertices;
@@ -41,122 +54,134 @@ public class IncidMatrixDir implements Graph {
     public Set<Edge> getEdges() {
         Set<Edge> edges = new HashSet<>();
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            Integer source = null;
-            Integer target = null;
-
-            for (int j = 0; j < numberOfVertices; j++) {
-                Incidence value = matrix.get(j).get(i);
-                if (value == Incidence.SOURCE) {
-                    source = j;
-                } else if (value == Incidence.TARGET) {
-                    target = j;
-                }
-            }
-
-            if (source != null && target != null) {
-                edges.add(Edge.getEdgeByVertexes(source, target));
-            }
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            edges.add(edgeObject(i));
         }
 
         return edges;
     }
 
+    /**
+     * Oggetto Edge della colonna, chiesto alla libreria solo la prima volta: la ricerca della
+     * libreria scorre tutti gli archi mai creati, quindi getEdges ripetuti la pagherebbero ogni volta
+     */
+    private Edge edgeObject(int col) {
+        if (edgeObjects == null || col >= edgeObjects.length) {
+            edgeObjects = Arrays.copyOf(edgeObjects == null ? new Edge[0] : edgeObjects, Math.max(16, matrix.edgeCount()));
+        }
+        if (edgeObjects[col] == null) {
+            edgeObjects[col] = EdgeKey.toEdge(EdgeKey.pack(matrix.getSource(col), matrix.getTarget(col)));
+        }
+        return edgeObjects[col];
+    }
+
     @Override
     public boolean containsVertex(Integer integer) {
-        return numberOfVertices > integer;
+        return matrix.vertexCount() > integer;
     }
 
     @Override
     public void removeVertex(Integer integer) throws NoSuchElementException {
-        if (numberOfVertices <= integer) throw new NoSuchElementException();
-        matrix.remove(integer);
-        numberOfVertices--;
+        if (matrix.vertexCount() <= integer || integer < 0) throw new NoSuchElementException();
+
+        for (int i = matrix.edgeCount() - 1; i >= 0; i--) {
+            if (matrix.getIncidence(integer, i) != Incidence.NONE) {
+                removeColumn(i);
+            }
+        }
+        matrix.removeVertex(integer);
+        components = null;
+        removals++;
+        rebuildIndex();
     }
 
     @Override
     public void addEdge(Edge edge) throws IllegalArgumentException {
-        if (edge.getSource() >= numberOfVertices || edge.getTarget() >= numberOfVertices || edge.getSource() < 0 || edge.getTarget() < 0)
-            throw new IllegalArgumentException();
+        addEdge(EdgeKey.of(edge));
+    }
 
-        boolean edgeAlreadyExists = false;
+    /** Come {@link #addEdge(Edge)} con l'arco codificato da {@link EdgeKey} */
+    public void addEdge(long edge) throws IllegalArgumentException {
+        int source = EdgeKey.source(edge);
+        int target = EdgeKey.target(edge);
+        if (source >= matrix.vertexCount() || target >= matrix.vertexCount() || source < 0 || target < 0)
+            throw new IllegalArgumentException();
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (matrix.get(edge.getSource()).get(i) == Incidence.SOURCE && matrix.get(edge.getTarget()).get(i) == Incidence.TARGET) {
-                edgeAlreadyExists = true;
-                break;
-            }
+        if (index.get(edge) == -1) {
+            int col = matrix.addEdge(source, target);
+            index.put(edge, col);
+            if (components != null) components.union(source, target);
         }
+    }
 
-        if (!edgeAlreadyExists) {
-            for (int i = 0; i < numberOfVertices; i++) {
-                if (i == edge.getSource()) {
-                    matrix.get(i).add(Incidence.SOURCE);
-                } else if (i == edge.getTarget()) {
-                    matrix.get(i).add(Incidence.TARGET);
-                } else {
-                    matrix.get(i).add(Incidence.NONE);
-                }
-            }
-            numberOfEdge++;
-        }
+    /** Restituisce la colonna dell'arco source -> target, -1 se non esiste */
+    private int findEdge(int source, int target) {
+        return index.get(EdgeKey.pack(source, target));
     }
 
     @Override
     public boolean containsEdge(Edge edge) throws IllegalArgumentException {
-        if (edge.getSource() >= numberOfVertices || edge.getTarget() >= numberOfVertices || edge.getSource() < 0 || edge.getTarget() < 0)
-            throw new IllegalArgumentException();
+        return containsEdge(EdgeKey.of(edge));
+    }
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (matrix.get(edge.getSource()).get(i) == Incidence.SOURCE && matrix.get(edge.getTarget()).get(i) == Incidence.TARGET) {
-                return true;
-            }
-        }
+    /** Come {@link #containsEdge(Edge)} con l'arco codificato da {@link EdgeKey} */
+    public boolean containsEdge(long edge) throws IllegalArgumentException {
+        int source = EdgeKey.source(edge);
+        int target = EdgeKey.target(edge);
+        if (source >= matrix.vertexCount() || target >= matrix.vertexCount() || source < 0 || target < 0)
+            throw new IllegalArgumentException();
 
-        return false;
+        return index.get(edge) != -1;
     }
 
     @Override
     public void removeEdge(Edge edge) throws IllegalArgumentException, NoSuchElementException {
-        if (edge.getSource() >= numberOfVertices || edge.getTarget() >= numberOfVertices) {
+        if (edge.getSource() >= matrix.vertexCount() || edge.getTarget() >= matrix.vertexCount()) {
             throw new IllegalArgumentException();
         }
 
-        int edgeIndex = -1;
-
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (matrix.get(edge.getSource()).get(i) == Incidence.SOURCE && matrix.get(edge.getTarget()).get(i) == Incidence.TARGET) {
-                edgeIndex = i;
-                break;
-            }
-        }
+        int edgeIndex = findEdge(edge.getSource(), edge.getTarget());
 
         if (edgeIndex == -1) {
             throw new NoSuchElementException();
         }
 
-        for (ArrayList<Incidence> row : matrix) {
-            row.remove(edgeIndex);
+        removeColumn(edgeIndex);
+    }
+
+    /** Rimuove la colonna tenendo allineato l'indice con lo spostamento fatto dalla memorizzazione */
+    private void removeColumn(int col) {
+        components = null; // togliere un arco puo' dividere una componente
+        removals++;
+        index.remove(EdgeKey.pack(matrix.getSource(col), matrix.getTarget(col)));
+        if (edgeObjects != null && col < edgeObjects.length) {
+            // la memorizzazione sposta l'ultima colonna al posto di col
+            int last = matrix.edgeCount() - 1;
+            edgeObjects[col] = last < edgeObjects.length ? edgeObjects[last] : null;
+            if (last < edgeObjects.length) edgeObjects[last] = null;
+        }
+        if (matrix.removeEdge(col) != -1) {
+            index.put(EdgeKey.pack(matrix.getSource(col), matrix.getTarget(col)), col);
         }
+    }
 
-        numberOfEdge--;
+    /** Dopo la rinumerazione dei vertici tutte le chiavi cambiano */
+    private void rebuildIndex() {
+        index.clear();
+        edgeObjects = null;
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            index.put(EdgeKey.pack(matrix.getSource(i), matrix.getTarget(i)), i);
+        }
     }
 
     @Override
     public Set<Integer> getAdjacent(Integer integer) throws NoSuchElementException {
-        if (integer >= numberOfVertices || integer < 0) throw new NoSuchElementException();
+        if (integer >= matrix.vertexCount() || integer < 0) throw new NoSuchElementException();
 
         Set<Integer> adjacent = new HashSet<>();
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (matrix.get(integer).get(i) == Incidence.SOURCE) {
-                for (int j = 0; j < numberOfVertices; j++) {
-                    if (matrix.get(j).get(i) == Incidence.TARGET) {
-                        adjacent.add(j);
-                        break;
-                    }
-                }
-            }
+        for (int c = matrix.firstOut(integer); c != -1; c = matrix.nextOut(integer, c)) {
+            adjacent.add(matrix.getTarget(matrix.outColumn(c)));
         }
 
         return adjacent;
@@ -164,21 +189,15 @@ public class IncidMatrixDir implements Graph {
 
     @Override
     public boolean isAdjacent(Integer integer, Integer integer1) throws IllegalArgumentException {
-        if (integer >= numberOfVertices || integer1 >= numberOfVertices || integer < 0 || integer1 < 0)
+        if (integer >= matrix.vertexCount() || integer1 >= matrix.vertexCount() || integer < 0 || integer1 < 0)
             throw new IllegalArgumentException();
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (matrix.get(integer).get(i) == Incidence.SOURCE && matrix.get(integer1).get(i) == Incidence.TARGET) {
-                return true;
-            }
-        }
-
-        return false;
+        return findEdge(integer, integer1) != -1;
     }
 
     @Override
     public int size() {
-        return numberOfVertices;
+        return matrix.vertexCount();
     }
 
     @Override
@@ -188,10 +207,11 @@ public class IncidMatrixDir implements Graph {
 
     @Override
     public boolean isCyclic() {
-        VisitResult result = new VisitResult(this);
-        for (Integer vertex : getVertices()) {
-            if (result.getColor(vertex) == VisitResult.Color.WHITE) {
-                if (visitDFSIsCyclic(vertex, result)) {
+        VisitState result = visitState();
+        DepthFirstSearch dfs = new DepthFirstSearch(matrix);
+        for (int vertex = 0; vertex < matrix.vertexCount(); vertex++) {
+            if (result.getColor(vertex) == VisitState.WHITE) {
+                if (dfs.findCycle(vertex, result)) {
                     return true;
                 }
             }
@@ -199,20 +219,14 @@ public class IncidMatrixDir implements Graph {
         return false;
     }
 
-    private boolean visitDFSIsCyclic(Integer integer, VisitResult result) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        for (Integer adjacent : getAdjacent(integer)) {
-            VisitResult.Color color = result.getColor(adjacent);
-            if (color == VisitResult.Color.WHITE) {
-                if (visitDFSIsCyclic(adjacent, result)) {
-                    return true;
-                }
-            } else if (color == VisitResult.Color.GRAY) {
-                return true;
-            }
+    /** Stato di visita riusato tra una visita e l'altra, azzerato sulla dimensione attuale del grafo */
+    private VisitState visitState() {
+        if (state == null) {
+            state = new VisitState(matrix.vertexCount());
+        } else {
+            state.reset(matrix.vertexCount());
         }
-        result.setColor(integer, VisitResult.Color.BLACK);
-        return false;
+        return state;
     }
 
     @Override
@@ -222,218 +236,128 @@ public class IncidMatrixDir implements Graph {
 
     @Override
     public VisitResult getBFSTree(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        if (integer >= numberOfVertices || integer < 0) throw new IllegalArgumentException();
-        VisitResult result = new VisitResult(this);
-        ArrayList<Integer> visit = new ArrayList<>();
-        visitBFS(integer, result, visit);
-        return result;
+        return getBFSTree(integer, false);
     }
 
-    private void visitBFS(Integer integer, VisitResult result, ArrayList<Integer> visita) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        visita.add(integer);
-
-        while (!visita.isEmpty()) {
-            for (Integer adjacent : getAdjacent(visita.getFirst())) {
-                if (result.getColor(adjacent) == VisitResult.Color.WHITE) {
-                    result.setColor(adjacent, VisitResult.Color.GRAY);
-                    result.setParent(adjacent, visita.getFirst());
-                    visita.add(adjacent);
-                }
-            }
-            result.setColor(visita.getFirst(), VisitResult.Color.BLACK);
-            visita.removeFirst();
+    /**
+     * Come {@link #getBFSTree(Integer)}; con directionOptimizing la visita passa a bottom-up
+     * sui livelli con frontiera grande, utile su grafi grandi a diametro piccolo.
+     */
+    public VisitResult getBFSTree(Integer integer, boolean directionOptimizing) throws IllegalArgumentException {
+        if (integer >= matrix.vertexCount() || integer < 0) throw new IllegalArgumentException();
+        VisitState result = visitState();
+        BreadthFirstSearch bfs = new BreadthFirstSearch(matrix);
+        if (directionOptimizing) {
+            bfs.visitDirectionOptimizing(integer, result);
+        } else {
+            bfs.visit(integer, result);
         }
+        return result.toVisitResult(this);
     }
 
     @Override
     public VisitResult getDFSTree(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        if (integer >= numberOfVertices || integer < 0) throw new IllegalArgumentException();
-        VisitResult result = new VisitResult(this);
-        int[] time = {0};
-        visitDFS(integer, result, time);
-        return result;
-    }
-
-    private void visitDFS(Integer integer, VisitResult result, int[] time) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        result.setStartTime(integer, ++time[0]);
-
-        for (Integer adjacent : getAdjacent(integer)) {
-            if (result.getColor(adjacent) == VisitResult.Color.WHITE) {
-                result.setParent(adjacent, integer);
-                visitDFS(adjacent, result, time);
-            }
-        }
-
-        result.setColor(integer, VisitResult.Color.BLACK);
-        result.setEndTime(integer, ++time[0]);
+        if (integer >= matrix.vertexCount() || integer < 0) throw new IllegalArgumentException();
+        VisitState result = visitState();
+        new DepthFirstSearch(matrix).visit(integer, result);
+        return result.toVisitResult(this);
     }
 
     @Override
     public VisitResult getDFSTOTForest(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        if (integer >= numberOfVertices || integer < 0) throw new IllegalArgumentException();
-        VisitResult result = new VisitResult(this);
-        int[] time = {0};
-        visitDFS(integer, result, time);
-        Integer next;
-        while ((next = vertexColorControl(result)) != -1) {
-            visitDFS(next, result, time);
-        }
-        return result;
+        if (integer >= matrix.vertexCount() || integer < 0) throw new IllegalArgumentException();
+        VisitState result = visitState();
+        DepthFirstSearch dfs = new DepthFirstSearch(matrix);
+        dfs.visit(integer, result);
+        visitRemaining(dfs, result);
+        return result.toVisitResult(this);
     }
 
-    private Integer vertexColorControl(VisitResult result) {
-        for (int i = 0; i < numberOfVertices; i++) {
-            if (result.getColor(i) != VisitResult.Color.BLACK) {
-                return i;
+    /** Fa partire una visita da ogni vertice ancora WHITE, scorrendo i vertici una volta sola */
+    private void visitRemaining(DepthFirstSearch dfs, VisitState result) {
+        for (int i = 0; i < matrix.vertexCount(); i++) {
+            if (result.getColor(i) == VisitState.WHITE) {
+                dfs.visit(i, result);
             }
         }
-        return -1;
     }
 
     @Override
     public VisitResult getDFSTOTForest(Integer[] integers) throws UnsupportedOperationException, IllegalArgumentException {
-        VisitResult result = new VisitResult(this);
-        int[] time = {0};
-        ArrayList<Integer> starts = new ArrayList<>(Arrays.asList(integers));
-        while (!starts.isEmpty()) {
-            if (starts.getFirst() >= numberOfVertices || starts.getFirst() < 0) throw new IllegalArgumentException();
-            if (result.getColor(starts.getFirst()) == VisitResult.Color.WHITE) {
-                visitDFS(starts.getFirst(), result, time);
+        VisitState result = visitState();
+        DepthFirstSearch dfs = new DepthFirstSearch(matrix);
+        for (int start : integers) {
+            if (start >= matrix.vertexCount() || start < 0) throw new IllegalArgumentException();
+            if (result.getColor(start) == VisitState.WHITE) {
+                dfs.visit(start, result);
             }
-            starts.removeFirst();
-        }
-        Integer next;
-        while ((next = vertexColorControl(result)) != -1) {
-            visitDFS(next, result, time);
         }
-        return result;
+        visitRemaining(dfs, result);
+        return result.toVisitResult(this);
     }
 
     @Override
     public Integer[] topologicalSort() throws UnsupportedOperationException {
-        if (this.isCyclic()) throw new UnsupportedOperationException();
-
-        ArrayList<ArrayList<Incidence>> copy = new ArrayList<>();
-        Integer[] result = new Integer[numberOfVertices];
-        Set<Integer> visited = new HashSet<>();
+        return topologicalSort(false);
+    }
 
-        for (ArrayList<Incidence> row : matrix) {
-            copy.add(new ArrayList<>(row));
-        }
+    /** Come {@link #topologicalSort()}; con smallestFirst a parita' di vincoli viene prima il vertice con indice minore */
+    public Integer[] topologicalSort(boolean smallestFirst) throws UnsupportedOperationException {
+        int[] order = TopologicalSort.sort(matrix, smallestFirst);
+        if (order == null) throw new UnsupportedOperationException();
 
-        for (int i = 0; i < numberOfVertices; i++) {
-            int choice = getVertexWithoutIncomingEdge(copy, visited);
-            if (choice == -1) throw new UnsupportedOperationException();
-            visited.add(choice);
-            result[i] = choice;
-            removeOutcomingEdge(choice, copy);
+        Integer[] result = new Integer[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
         }
-
         return result;
     }
 
-    private int getVertexWithoutIncomingEdge(ArrayList<ArrayList<Incidence>> copy, Set<Integer> visited) {
-        for (int i = 0; i < copy.size(); i++) {
-            if (visited.contains(i)) continue;
-
-            boolean hasIncoming = false;
-            for (int j = 0; j < numberOfEdge; j++) {
-                if (copy.get(i).get(j) == Incidence.TARGET) {
-                    hasIncoming = true;
-                    break;
-                }
-            }
+    @Override
+    public Set<Set<Integer>> stronglyConnectedComponents() throws UnsupportedOperationException {
+        return getStronglyConnectedComponents().asSets();
+    }
 
-            if (!hasIncoming) {
-                return i;
-            }
-        }
-        return -1;
+    /** Componenti fortemente connesse come id di componente per vertice, senza creare insiemi */
+    public StronglyConnectedComponents getStronglyConnectedComponents() {
+        return StronglyConnectedComponents.compute(matrix);
     }
 
-    private void removeOutcomingEdge(Integer integer, ArrayList<ArrayList<Incidence>> copy) {
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (copy.get(integer).get(i) == Incidence.SOURCE) {
-                for (ArrayList<Incidence> row : copy) {
-                    row.set(i, Incidence.NONE);
-                }
-            }
-        }
+    /** Le stesse componenti calcolate in parallelo con FW-BW sui thread del pool */
+    public StronglyConnectedComponents getStronglyConnectedComponents(ForkJoinPool pool) {
+        return ParallelStronglyConnectedComponents.compute(matrix, pool);
     }
 
     @Override
-    public Set<Set<Integer>> stronglyConnectedComponents() throws UnsupportedOperationException {
-        Set<Set<Integer>> cfc = new HashSet<>();
-        ArrayList<Integer> resultDFS = new ArrayList<>();
-        VisitResult result = new VisitResult(this);
-        for (int i = 0; i < numberOfVertices; i++) {
-            if (result.getColor(i) == VisitResult.Color.WHITE) {
-                normalDFS(i, result, resultDFS);
-            }
-        }
-
-        IncidMatrixDir transposeGraph = getTranspose();
-        VisitResult transposeResult = new VisitResult(transposeGraph);
-        Collections.reverse(resultDFS);
-        for (Integer vertex : resultDFS) {
-            if (transposeResult.getColor(vertex) == VisitResult.Color.WHITE) {
-                Set<Integer> component = new HashSet<>();
-                transposeGraph.dfsComponent(vertex, transposeResult, component);
-                cfc.add(component);
-            }
-        }
-
-        return cfc;
+    public Set<Set<Integer>> connectedComponents() throws UnsupportedOperationException {
+        return getConnectedComponents().asSets();
     }
 
-    private void normalDFS(Integer integer, VisitResult result, ArrayList<Integer> resultDFS) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        for (Integer adjacent : getAdjacent(integer)) {
-            if (result.getColor(adjacent) == VisitResult.Color.WHITE) {
-                normalDFS(adjacent, result, resultDFS);
-            }
+    /**
+     * Componenti debolmente connesse (gli archi presi senza verso) in un union-find costruito
+     * con una sola scansione degli archi e poi tenuto aggiornato da addVertex e addEdge.
+     * La struttura e' in sola lettura e resta valida finche' il grafo non rimuove vertici o archi:
+     * dopo una rimozione ogni lettura lancia ConcurrentModificationException e va richiesta di nuovo.
+     */
+    public DisjointSets getConnectedComponents() {
+        if (components == null) {
+            components = ConnectedComponents.of(matrix, () -> removals);
         }
-        result.setColor(integer, VisitResult.Color.BLACK);
-        resultDFS.add(integer);
+        return components;
     }
 
-    private IncidMatrixDir getTranspose() {
-        IncidMatrixDir transpose = new IncidMatrixDir();
-        for (int i = 0; i < numberOfVertices; i++) {
-            transpose.addVertex();
-        }
-        for (int i = 0; i < numberOfEdge; i++) {
-            Integer source = null;
-            Integer destination = null;
-            for (int j = 0; j < numberOfVertices; j++) {
-                if (matrix.get(j).get(i) == Incidence.SOURCE) {
-                    source = j;
-                } else if (matrix.get(j).get(i) == Incidence.TARGET) {
-                    destination = j;
-                }
-            }
-            if (source != null && destination != null) {
-                transpose.addEdge(Edge.getEdgeByVertexes(destination, source));
-            }
-        }
-        return transpose;
+    /** Come {@link #connectedComponents()}, con le unioni fatte in parallelo su threads thread */
+    public Set<Set<Integer>> connectedComponents(int threads) {
+        return getConnectedComponents(threads).asSets();
     }
 
-    private void dfsComponent(Integer integer, VisitResult result, Set<Integer> component) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        component.add(integer);
-        for (Integer adjacent : getAdjacent(integer)) {
-            if (result.getColor(adjacent) == VisitResult.Color.WHITE) {
-                dfsComponent(adjacent, result, component);
-            }
-        }
-        result.setColor(integer, VisitResult.Color.BLACK);
+    /** Componenti debolmente connesse calcolate da zero con un union-find concorrente */
+    public ConcurrentUnionFind getConnectedComponents(int threads) {
+        return ConcurrentUnionFind.of(matrix, threads);
     }
 
-    @Override
-    public Set<Set<Integer>> connectedComponents() throws UnsupportedOperationException {
-        throw new UnsupportedOperationException();
+    /** Salva il grafo nel formato binario di {@link MappedGraph}, che lo riapre senza ricostruirlo */
+    public void writeTo(Path file) throws IOException {
+        MappedGraph.write(file, matrix, null);
     }
-}
\ No newline at end of file
+}
@@ -2,73 +2,107 @@ import upo.graph.base.Edge;
 import upo.graph.base.VisitResult;
 import upo.graph.base.WeightedGraph;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
 
 public class IncidMatrixDirWeight implements WeightedGraph {
-    private int numberOfVertices;
-    private int numberOfEdge;
-    private ArrayList<ArrayList<Node>> matrix;
+    public static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private final IncidenceStore matrix;
+    /** Colonna di ogni arco, per trovarlo in tempo costante atteso */
+    private final EdgeIndex index;
+    private VisitState state;
+    /** Componenti debolmente connesse, aggiornate da addVertex/addEdge; null finche' non servono o dopo una rimozione */
+    private ConnectedComponents components;
+    /** Vertici e archi rimossi finora, per invalidare le componenti gia' restituite */
+    private int removals;
+    /** Oggetti Edge per colonna gia' creati da getEdges, null dove non ancora chiesti */
+    private Edge[] edgeObjects;
+    /** Peso di ogni arco, indicizzato per colonna */
+    private double[] weights;
+    /** Array riusati dalle ricerche punto a punto, ricreati quando cambia il numero di vertici */
+    private PathSearch search;
+    /** Landmark per ALT, null se non preparati o se il grafo e' cambiato dopo */
+    private Landmarks landmarks;
 
     public IncidMatrixDirWeight() {
-        this.numberOfVertices = 0;
-        this.numberOfEdge = 0;
-        this.matrix = new ArrayList<>();
+        this(new PackedIncidenceStore());
+    }
+
+    /**
+     * Permette di scegliere la memorizzazione, ad esempio {@link SparseIncidenceStore} per grafi grandi.
+     * Gli archi gia' presenti nella memorizzazione hanno peso INFINITY.
+     */
+    public IncidMatrixDirWeight(IncidenceStore store) {
+        this(store, null);
+    }
+
+    /** Memorizzazione gia' riempita con i pesi per colonna, usato da {@link GraphBuilder} */
+    IncidMatrixDirWeight(IncidenceStore store, double[] weights) {
+        this.matrix = store;
+        this.index = new EdgeIndex(store.edgeCount());
+        if (weights == null) {
+            weights = new double[Math.max(16, store.edgeCount())];
+            Arrays.fill(weights, INFINITY);
+        }
+        this.weights = weights;
+        rebuildIndex();
     }
 
     @Override
     public double getEdgeWeight(Edge edge) throws IllegalArgumentException, NoSuchElementException {
-        if (edge.getSource() < 0 || edge.getSource() >= numberOfVertices || edge.getTarget() < 0 || edge.getTarget() >= numberOfVertices)
-            throw new IllegalArgumentException();
+        return getEdgeWeight(EdgeKey.of(edge));
+    }
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            Node fromVal = matrix.get(edge.getSource()).get(i);
-            Node toVal = matrix.get(edge.getTarget()).get(i);
+    /** Come {@link #getEdgeWeight(Edge)} con l'arco codificato da {@link EdgeKey} */
+    public double getEdgeWeight(long edge) throws IllegalArgumentException, NoSuchElementException {
+        checkEdge(edge);
 
-            if (fromVal.getDirection() == Incidence.SOURCE && toVal.getDirection() == Incidence.TARGET) {
-                return fromVal.getWeight();
-            }
-        }
-        throw new NoSuchElementException();
+        int col = index.get(edge);
+        if (col == -1) throw new NoSuchElementException();
+
+        return weights[col];
     }
 
     @Override
     public void setEdgeWeight(Edge edge, double v) throws IllegalArgumentException, NoSuchElementException {
-        if (edge.getSource() < 0 || edge.getSource() >= numberOfVertices || edge.getTarget() < 0 || edge.getTarget() >= numberOfVertices)
-            throw new IllegalArgumentException();
+        setEdgeWeight(EdgeKey.of(edge), v);
+    }
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            Node fromVal = matrix.get(edge.getSource()).get(i);
-            Node toVal = matrix.get(edge.getTarget()).get(i);
+    /** Come {@link #setEdgeWeight(Edge, double)} con l'arco codificato da {@link EdgeKey} */
+    public void setEdgeWeight(long edge, double v) throws IllegalArgumentException, NoSuchElementException {
+        checkEdge(edge);
 
-            if (fromVal.getDirection() == Incidence.SOURCE && toVal.getDirection() == Incidence.TARGET) {
-                fromVal.makeNode(Incidence.SOURCE, v);
-                toVal.makeNode(Incidence.TARGET, v);
-                return;
-            }
-        }
+        int col = index.get(edge);
+        if (col == -1) throw new NoSuchElementException();
+
+        weights[col] = v;
+        landmarks = null;
+    }
 
-        throw new NoSuchElementException();
+    private void checkEdge(long edge) throws IllegalArgumentException {
+        int source = EdgeKey.source(edge);
+        int target = EdgeKey.target(edge);
+        if (source < 0 || source >= matrix.vertexCount() || target < 0 || target >= matrix.vertexCount())
+            throw new IllegalArgumentException();
     }
 
     @Override
     public int addVertex() {
-        ArrayList<Node> newVertex = new ArrayList<>();
-        for (int i = 0; i < numberOfEdge; i++) {
-            Node node = new Node();
-            node.makeNode(Incidence.NONE, Node.INFINITY);
-            newVertex.add(node);
-        }
-        matrix.add(newVertex);
-        numberOfVertices++;
-
-        return numberOfVertices - 1;
+        int vertex = matrix.addVertex();
+        if (components != null) components.add();
+        landmarks = null;
+        return vertex;
     }
 
     @Override
     public Set<Integer> getVertices() {
         Set<Integer> vertices = new HashSet<>();
 
-        for (int i = 0; i < numberOfVertices; i++) {
+        for (int i = 0; i < matrix.vertexCount(); i++) {
             vertices.add(i);
         }
 
@@ -79,138 +113,137 @@ public class IncidMatrixDirWeight implements WeightedGraph {
     public Set<Edge> getEdges() {
         Set<Edge> edgeSet = new HashSet<>();
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            int source = -1;
-            int target = -1;
-
-            for (int j = 0; j < numberOfVertices; j++) {
-                Node node = matrix.get(j).get(i);
-
-                if (node.getDirection() == Incidence.SOURCE) {
-                    source = j;
-                } else if (node.getDirection() == Incidence.TARGET) {
-                    target = j;
-                }
-            }
-
-            if (source != -1 && target != -1) {
-                edgeSet.add(Edge.getEdgeByVertexes(source, target));
-            }
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            edgeSet.add(edgeObject(i));
         }
 
         return edgeSet;
     }
 
+    /**
+     * Oggetto Edge della colonna, chiesto alla libreria solo la prima volta: la ricerca della
+     * libreria scorre tutti gli archi mai creati, quindi getEdges ripetuti la pagherebbero ogni volta
+     */
+    private Edge edgeObject(int col) {
+        if (edgeObjects == null || col >= edgeObjects.length) {
+            edgeObjects = Arrays.copyOf(edgeObjects == null ? new Edge[0] : edgeObjects, Math.max(16, matrix.edgeCount()));
+        }
+        if (edgeObjects[col] == null) {
+            edgeObjects[col] = EdgeKey.toEdge(EdgeKey.pack(matrix.getSource(col), matrix.getTarget(col)));
+        }
+        return edgeObjects[col];
+    }
+
     @Override
     public boolean containsVertex(Integer integer) {
-        return (integer < numberOfVertices);
+        return (integer < matrix.vertexCount());
     }
 
     @Override
     public void removeVertex(Integer integer) throws NoSuchElementException {
-        if (numberOfVertices < integer) throw new NoSuchElementException();
+        if (matrix.vertexCount() <= integer || integer < 0) throw new NoSuchElementException();
 
-        matrix.remove(integer);
-        numberOfVertices--;
+        for (int i = matrix.edgeCount() - 1; i >= 0; i--) {
+            if (matrix.getIncidence(integer, i) != Incidence.NONE) {
+                removeColumn(i);
+            }
+        }
+        matrix.removeVertex(integer);
+        components = null;
+        removals++;
+        landmarks = null;
+        rebuildIndex();
     }
 
     @Override
     public void addEdge(Edge edge) throws IllegalArgumentException {
-        if (edge.getSource() < 0 || edge.getSource() >= numberOfVertices || edge.getTarget() < 0 || edge.getTarget() >= numberOfVertices)
-            throw new IllegalArgumentException();
-
-        int source = edge.getSource();
-        int target = edge.getTarget();
+        addEdge(EdgeKey.of(edge));
+    }
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            Node fromNode = matrix.get(source).get(i);
-            Node toNode = matrix.get(target).get(i);
+    /** Come {@link #addEdge(Edge)} con l'arco codificato da {@link EdgeKey} */
+    public void addEdge(long edge) throws IllegalArgumentException {
+        checkEdge(edge);
 
-            if (fromNode.getDirection() == Incidence.SOURCE && toNode.getDirection() == Incidence.TARGET) {
-                return;
-            }
+        if (index.get(edge) != -1) {
+            return;
         }
 
-        for (int i = 0; i < numberOfVertices; i++) {
-            Node node = new Node();
-            if (i == source) {
-                node.makeNode(Incidence.SOURCE, Node.INFINITY);
-            } else if (i == target) {
-                node.makeNode(Incidence.TARGET, Node.INFINITY);
-            } else {
-                node.makeNode(Incidence.NONE, Node.INFINITY);
-            }
-            matrix.get(i).add(node);
+        int col = matrix.addEdge(EdgeKey.source(edge), EdgeKey.target(edge));
+        index.put(edge, col);
+        if (col == weights.length) {
+            weights = Arrays.copyOf(weights, Math.max(16, col * 2));
+        }
+        weights[col] = INFINITY;
+        landmarks = null;
+        if (components != null) components.union(EdgeKey.source(edge), EdgeKey.target(edge));
+    }
+
+    /** Restituisce la colonna dell'arco source -> target, -1 se non esiste */
+    private int findEdge(int source, int target) {
+        return index.get(EdgeKey.pack(source, target));
+    }
+
+    /** Rimuove la colonna tenendo allineati pesi e indice con lo spostamento fatto dalla memorizzazione */
+    private void removeColumn(int col) {
+        components = null; // togliere un arco puo' dividere una componente
+        removals++;
+        landmarks = null;
+        index.remove(EdgeKey.pack(matrix.getSource(col), matrix.getTarget(col)));
+        if (edgeObjects != null && col < edgeObjects.length) {
+            // la memorizzazione sposta l'ultima colonna al posto di col
+            int last = matrix.edgeCount() - 1;
+            edgeObjects[col] = last < edgeObjects.length ? edgeObjects[last] : null;
+            if (last < edgeObjects.length) edgeObjects[last] = null;
         }
+        int moved = matrix.removeEdge(col);
+        if (moved != -1) {
+            weights[col] = weights[moved];
+            index.put(EdgeKey.pack(matrix.getSource(col), matrix.getTarget(col)), col);
+        }
+    }
 
-        numberOfEdge++;
+    /** Dopo la rinumerazione dei vertici tutte le chiavi cambiano */
+    private void rebuildIndex() {
+        index.clear();
+        edgeObjects = null;
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            index.put(EdgeKey.pack(matrix.getSource(i), matrix.getTarget(i)), i);
+        }
     }
 
     @Override
     public boolean containsEdge(Edge edge) throws IllegalArgumentException {
-        if (edge.getSource() < 0 || edge.getSource() >= numberOfVertices || edge.getTarget() < 0 || edge.getTarget() >= numberOfVertices)
-            throw new IllegalArgumentException();
-
-        int source = edge.getSource();
-        int target = edge.getTarget();
-
-        for (int i = 0; i < numberOfEdge; i++) {
-            Incidence fromNode = (matrix.get(source).get(i)).getDirection();
-            Incidence toNode = (matrix.get(target).get(i)).getDirection();
+        return containsEdge(EdgeKey.of(edge));
+    }
 
-            if (fromNode == Incidence.SOURCE && toNode == Incidence.TARGET) {
-                return true;
-            }
-        }
+    /** Come {@link #containsEdge(Edge)} con l'arco codificato da {@link EdgeKey} */
+    public boolean containsEdge(long edge) throws IllegalArgumentException {
+        checkEdge(edge);
 
-        return false;
+        return index.get(edge) != -1;
     }
 
     @Override
     public void removeEdge(Edge edge) throws IllegalArgumentException, NoSuchElementException {
-        if (edge.getSource() < 0 || edge.getSource() >= numberOfVertices || edge.getTarget() < 0 || edge.getTarget() >= numberOfVertices)
-            throw new IllegalArgumentException();
+        checkEdge(EdgeKey.of(edge));
 
-        int source = edge.getSource();
-        int target = edge.getTarget();
-        int col = -1;
-
-        for (int i = 0; i < numberOfEdge; i++) {
-            Node fromNode = matrix.get(source).get(i);
-            Node toNode = matrix.get(target).get(i);
-
-            if (fromNode.getDirection() == Incidence.SOURCE && toNode.getDirection() == Incidence.TARGET) {
-                col = i;
-                break;
-            }
-        }
+        int col = index.get(EdgeKey.of(edge));
 
         if (col == -1) {
             throw new NoSuchElementException();
         }
 
-        for (int i = 0; i < numberOfVertices; i++) {
-            matrix.get(i).remove(col);
-        }
-
-        numberOfEdge--;
+        removeColumn(col);
     }
 
     @Override
     public Set<Integer> getAdjacent(Integer integer) throws NoSuchElementException {
-        if (integer >= numberOfVertices || integer < 0) throw new NoSuchElementException();
+        if (integer >= matrix.vertexCount() || integer < 0) throw new NoSuchElementException();
 
         Set<Integer> adjacent = new HashSet<>();
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (matrix.get(integer).get(i).getDirection() == Incidence.SOURCE) {
-                for (int j = 0; j < numberOfVertices; j++) {
-                    if (matrix.get(j).get(i).getDirection() == Incidence.TARGET) {
-                        adjacent.add(j);
-                        break;
-                    }
-                }
-            }
+        for (int c = matrix.firstOut(integer); c != -1; c = matrix.nextOut(integer, c)) {
+            adjacent.add(matrix.getTarget(matrix.outColumn(c)));
         }
 
         return adjacent;
@@ -218,21 +251,15 @@ public class IncidMatrixDirWeight implements WeightedGraph {
 
     @Override
     public boolean isAdjacent(Integer integer, Integer integer1) throws IllegalArgumentException {
-        if (integer >= numberOfVertices || integer1 >= numberOfVertices || integer < 0 || integer1 < 0)
+        if (integer >= matrix.vertexCount() || integer1 >= matrix.vertexCount() || integer < 0 || integer1 < 0)
             throw new IllegalArgumentException();
 
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (matrix.get(integer).get(i).getDirection() == Incidence.SOURCE && matrix.get(integer1).get(i).getDirection() == Incidence.TARGET) {
-                return true;
-            }
-        }
-
-        return false;
+        return findEdge(integer, integer1) != -1;
     }
 
     @Override
     public int size() {
-        return numberOfVertices;
+        return matrix.vertexCount();
     }
 
     @Override
@@ -242,10 +269,11 @@ public class IncidMatrixDirWeight implements WeightedGraph {
 
     @Override
     public boolean isCyclic() {
-        VisitResult result = new VisitResult(this);
-        for (Integer vertex : getVertices()) {
-            if (result.getColor(vertex) == VisitResult.Color.WHITE) {
-                if (visitDFSIsCyclic(vertex, result)) {
+        VisitState result = visitState();
+        DepthFirstSearch dfs = new DepthFirstSearch(matrix);
+        for (int vertex = 0; vertex < matrix.vertexCount(); vertex++) {
+            if (result.getColor(vertex) == VisitState.WHITE) {
+                if (dfs.findCycle(vertex, result)) {
                     return true;
                 }
             }
@@ -253,20 +281,14 @@ public class IncidMatrixDirWeight implements WeightedGraph {
         return false;
     }
 
-    private boolean visitDFSIsCyclic(Integer integer, VisitResult result) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        for (Integer adjacent : getAdjacent(integer)) {
-            VisitResult.Color color = result.getColor(adjacent);
-            if (color == VisitResult.Color.WHITE) {
-                if (visitDFSIsCyclic(adjacent, result)) {
-                    return true;
-                }
-            } else if (color == VisitResult.Color.GRAY) {
-                return true;
-            }
+    /** Stato di visita riusato tra una visita e l'altra, azzerato sulla dimensione attuale del grafo */
+    private VisitState visitState() {
+        if (state == null) {
+            state = new VisitState(matrix.vertexCount());
+        } else {
+            state.reset(matrix.vertexCount());
         }
-        result.setColor(integer, VisitResult.Color.BLACK);
-        return false;
+        return state;
     }
 
     @Override
@@ -276,256 +298,323 @@ public class IncidMatrixDirWeight implements WeightedGraph {
 
     @Override
     public VisitResult getBFSTree(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        if (integer >= numberOfVertices || integer < 0) throw new IllegalArgumentException();
-        VisitResult result = new VisitResult(this);
-        ArrayList<Integer> visit = new ArrayList<>();
-        visitBFS(integer, result, visit);
-        return result;
-    }
-
-    private void visitBFS(Integer integer, VisitResult result, ArrayList<Integer> visita) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        visita.add(integer);
-
-        while (!visita.isEmpty()) {
-            for (Integer adjacent : getAdjacent(visita.getFirst())) {
-                if (result.getColor(adjacent) == VisitResult.Color.WHITE) {
-                    result.setColor(adjacent, VisitResult.Color.GRAY);
-                    result.setParent(adjacent, visita.getFirst());
-                    visita.add(adjacent);
-                }
-            }
-            result.setColor(visita.getFirst(), VisitResult.Color.BLACK);
-            visita.removeFirst();
+        return getBFSTree(integer, false);
+    }
+
+    /**
+     * Come {@link #getBFSTree(Integer)}; con directionOptimizing la visita passa a bottom-up
+     * sui livelli con frontiera grande, utile su grafi grandi a diametro piccolo.
+     */
+    public VisitResult getBFSTree(Integer integer, boolean directionOptimizing) throws IllegalArgumentException {
+        if (integer >= matrix.vertexCount() || integer < 0) throw new IllegalArgumentException();
+        VisitState result = visitState();
+        BreadthFirstSearch bfs = new BreadthFirstSearch(matrix);
+        if (directionOptimizing) {
+            bfs.visitDirectionOptimizing(integer, result);
+        } else {
+            bfs.visit(integer, result);
         }
+        return result.toVisitResult(this);
     }
 
     @Override
     public VisitResult getDFSTree(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        if (integer >= numberOfVertices || integer < 0) throw new IllegalArgumentException();
-        VisitResult result = new VisitResult(this);
-        int[] time = {0};
-        visitDFS(integer, result, time);
-        return result;
-    }
-
-    private void visitDFS(Integer integer, VisitResult result, int[] time) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        result.setStartTime(integer, ++time[0]);
-
-        for (Integer adjacent : getAdjacent(integer)) {
-            if (result.getColor(adjacent) == VisitResult.Color.WHITE) {
-                result.setParent(adjacent, integer);
-                visitDFS(adjacent, result, time);
-            }
-        }
-
-        result.setColor(integer, VisitResult.Color.BLACK);
-        result.setEndTime(integer, ++time[0]);
+        if (integer >= matrix.vertexCount() || integer < 0) throw new IllegalArgumentException();
+        VisitState result = visitState();
+        new DepthFirstSearch(matrix).visit(integer, result);
+        return result.toVisitResult(this);
     }
 
     @Override
     public VisitResult getDFSTOTForest(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        if (integer >= numberOfVertices || integer < 0) throw new IllegalArgumentException();
-        VisitResult result = new VisitResult(this);
-        int[] time = {0};
-        visitDFS(integer, result, time);
-        Integer next;
-        while ((next = vertexColorControl(result)) != -1) {
-            visitDFS(next, result, time);
-        }
-        return result;
-    }
-
-    private Integer vertexColorControl(VisitResult result) {
-        for (int i = 0; i < numberOfVertices; i++) {
-            if (result.getColor(i) != VisitResult.Color.BLACK) {
-                return i;
+        if (integer >= matrix.vertexCount() || integer < 0) throw new IllegalArgumentException();
+        VisitState result = visitState();
+        DepthFirstSearch dfs = new DepthFirstSearch(matrix);
+        dfs.visit(integer, result);
+        visitRemaining(dfs, result);
+        return result.toVisitResult(this);
+    }
+
+    /** Fa partire una visita da ogni vertice ancora WHITE, scorrendo i vertici una volta sola */
+    private void visitRemaining(DepthFirstSearch dfs, VisitState result) {
+        for (int i = 0; i < matrix.vertexCount(); i++) {
+            if (result.getColor(i) == VisitState.WHITE) {
+                dfs.visit(i, result);
             }
         }
-        return -1;
     }
 
     @Override
     public VisitResult getDFSTOTForest(Integer[] integers) throws UnsupportedOperationException, IllegalArgumentException {
-        VisitResult result = new VisitResult(this);
-        int[] time = {0};
-        ArrayList<Integer> starts = new ArrayList<>(Arrays.asList(integers));
-        while (!starts.isEmpty()) {
-            if (starts.getFirst() >= numberOfVertices || starts.getFirst() < 0) throw new IllegalArgumentException();
-            if (result.getColor(starts.getFirst()) == VisitResult.Color.WHITE) {
-                visitDFS(starts.getFirst(), result, time);
+        VisitState result = visitState();
+        DepthFirstSearch dfs = new DepthFirstSearch(matrix);
+        for (int start : integers) {
+            if (start >= matrix.vertexCount() || start < 0) throw new IllegalArgumentException();
+            if (result.getColor(start) == VisitState.WHITE) {
+                dfs.visit(start, result);
             }
-            starts.removeFirst();
         }
-        Integer next;
-        while ((next = vertexColorControl(result)) != -1) {
-            visitDFS(next, result, time);
-        }
-        return result;
+        visitRemaining(dfs, result);
+        return result.toVisitResult(this);
     }
 
     @Override
     public Integer[] topologicalSort() throws UnsupportedOperationException {
-        if (this.isCyclic()) throw new UnsupportedOperationException();
-
-        ArrayList<ArrayList<Node>> copy = new ArrayList<>();
-        Integer[] result = new Integer[numberOfVertices];
-        Set<Integer> visited = new HashSet<>();
-
-        for (ArrayList<Node> row : matrix) {
-            ArrayList<Node> newRow = new ArrayList<>();
-            for (Node node : row) {
-                Node newNode = new Node();
-                newNode.makeNode(node.getDirection(), node.getWeight());
-                newRow.add(newNode);
-            }
-            copy.add(newRow);
-        }
+        return topologicalSort(false);
+    }
 
-        for (int i = 0; i < numberOfVertices; i++) {
-            int choice = getVertexWithoutIncomingEdge(copy, visited);
-            if (choice == -1) throw new UnsupportedOperationException();
-            visited.add(choice);
-            result[i] = choice;
-            removeOutcomingEdge(choice, copy);
-        }
+    /** Come {@link #topologicalSort()}; con smallestFirst a parita' di vincoli viene prima il vertice con indice minore */
+    public Integer[] topologicalSort(boolean smallestFirst) throws UnsupportedOperationException {
+        int[] order = TopologicalSort.sort(matrix, smallestFirst);
+        if (order == null) throw new UnsupportedOperationException();
 
+        Integer[] result = new Integer[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
         return result;
     }
 
-    private int getVertexWithoutIncomingEdge(ArrayList<ArrayList<Node>> copy, Set<Integer> visited) {
-        for (int i = 0; i < copy.size(); i++) {
-            if (visited.contains(i)) continue;
+    @Override
+    public Set<Set<Integer>> stronglyConnectedComponents() throws UnsupportedOperationException {
+        return getStronglyConnectedComponents().asSets();
+    }
 
-            boolean hasIncoming = false;
-            for (int j = 0; j < numberOfEdge; j++) {
-                if (copy.get(i).get(j).getDirection() == Incidence.TARGET) {
-                    hasIncoming = true;
-                    break;
-                }
-            }
+    /** Componenti fortemente connesse come id di componente per vertice, senza creare insiemi */
+    public StronglyConnectedComponents getStronglyConnectedComponents() {
+        return StronglyConnectedComponents.compute(matrix);
+    }
 
-            if (!hasIncoming) {
-                return i;
-            }
-        }
-        return -1;
+    /** Le stesse componenti calcolate in parallelo con FW-BW sui thread del pool */
+    public StronglyConnectedComponents getStronglyConnectedComponents(ForkJoinPool pool) {
+        return ParallelStronglyConnectedComponents.compute(matrix, pool);
     }
 
-    private void removeOutcomingEdge(Integer integer, ArrayList<ArrayList<Node>> copy) {
-        for (int i = 0; i < numberOfEdge; i++) {
-            if (copy.get(integer).get(i).getDirection() == Incidence.SOURCE) {
-                for (int j = 0; j < numberOfVertices; j++) {
-                    copy.get(j).get(i).putDirection(Incidence.NONE);
-                    copy.get(j).get(i).putWeight(Node.INFINITY);
-                }
-            }
+    @Override
+    public Set<Set<Integer>> connectedComponents() throws UnsupportedOperationException {
+        return getConnectedComponents().asSets();
+    }
+
+    /**
+     * Componenti debolmente connesse (gli archi presi senza verso) in un union-find costruito
+     * con una sola scansione degli archi e poi tenuto aggiornato da addVertex e addEdge.
+     * La struttura e' in sola lettura e resta valida finche' il grafo non rimuove vertici o archi:
+     * dopo una rimozione ogni lettura lancia ConcurrentModificationException e va richiesta di nuovo.
+     */
+    public DisjointSets getConnectedComponents() {
+        if (components == null) {
+            components = ConnectedComponents.of(matrix, () -> removals);
         }
+        return components;
+    }
+
+    /** Come {@link #connectedComponents()}, con le unioni fatte in parallelo su threads thread */
+    public Set<Set<Integer>> connectedComponents(int threads) {
+        return getConnectedComponents(threads).asSets();
+    }
+
+    /** Componenti debolmente connesse calcolate da zero con un union-find concorrente */
+    public ConcurrentUnionFind getConnectedComponents(int threads) {
+        return ConcurrentUnionFind.of(matrix, threads);
     }
 
+    /** Albero dei cammini minimi con Bellman-Ford; con un ciclo negativo raggiungibile lancia {@link NegativeCycleException} */
     @Override
-    public Set<Set<Integer>> stronglyConnectedComponents() throws UnsupportedOperationException {
-        Set<Set<Integer>> cfc = new HashSet<>();
-        ArrayList<Integer> resultDFS = new ArrayList<>();
-        VisitResult result = new VisitResult(this);
-        for (int i = 0; i < numberOfVertices; i++) {
-            if (result.getColor(i) == VisitResult.Color.WHITE) {
-                normalDFS(i, result, resultDFS);
-            }
-        }
+    public WeightedGraph getBellmanFordShortestPaths(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
+        ShortestPaths paths = getBellmanFordPaths(integer, false);
+        if (paths.hasNegativeCycle()) throw new NegativeCycleException(paths.negativeCycle());
 
-        IncidMatrixDirWeight transposeGraph = getTranspose();
-        VisitResult transposeResult = new VisitResult(transposeGraph);
-        Collections.reverse(resultDFS);
-        for (Integer vertex : resultDFS) {
-            if (transposeResult.getColor(vertex) == VisitResult.Color.WHITE) {
-                Set<Integer> component = new HashSet<>();
-                transposeGraph.dfsComponent(vertex, transposeResult, component);
-                cfc.add(component);
-            }
-        }
+        return shortestPathTree(paths);
+    }
+
+    /**
+     * Distanze e predecessori di Bellman-Ford, a passi sull'elenco degli archi oppure con la
+     * coda (SPFA); un ciclo negativo raggiungibile e' riportato nel risultato invece che lanciato.
+     */
+    public ShortestPaths getBellmanFordPaths(int source, boolean queue) throws IllegalArgumentException {
+        if (source < 0 || source >= matrix.vertexCount()) throw new IllegalArgumentException();
 
-        return cfc;
+        return queue ? BellmanFord.computeQueue(matrix, weights, source) : BellmanFord.compute(matrix, weights, source);
     }
 
-    private void normalDFS(Integer integer, VisitResult result, ArrayList<Integer> resultDFS) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        for (Integer adjacent : getAdjacent(integer)) {
-            if (result.getColor(adjacent) == VisitResult.Color.WHITE) {
-                normalDFS(adjacent, result, resultDFS);
-            }
-        }
-        result.setColor(integer, VisitResult.Color.BLACK);
-        resultDFS.add(integer);
+    @Override
+    public WeightedGraph getDijkstraShortestPaths(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
+        return getDijkstraShortestPaths(integer, false);
     }
 
-    private IncidMatrixDirWeight getTranspose() {
-        IncidMatrixDirWeight transpose = new IncidMatrixDirWeight();
-        for (int i = 0; i < numberOfVertices; i++) {
-            transpose.addVertex();
-        }
-        for (int i = 0; i < numberOfEdge; i++) {
-            Integer source = null;
-            Integer destination = null;
-            for (int j = 0; j < numberOfVertices; j++) {
-                if (matrix.get(j).get(i).getDirection() == Incidence.SOURCE) {
-                    source = j;
-                } else if (matrix.get(j).get(i).getDirection() == Incidence.TARGET) {
-                    destination = j;
-                }
-            }
-            if (source != null && destination != null) {
-                transpose.addEdge(Edge.getEdgeByVertexes(destination, source));
-            }
-        }
-        return transpose;
+    /** Albero dei cammini minimi da integer; con pairingHeap la coda e' un {@link PairingHeap} */
+    public IncidMatrixDirWeight getDijkstraShortestPaths(Integer integer, boolean pairingHeap) throws UnsupportedOperationException, IllegalArgumentException {
+        return shortestPathTree(getDijkstraPaths(integer, pairingHeap));
     }
 
-    private void dfsComponent(Integer integer, VisitResult result, Set<Integer> component) {
-        result.setColor(integer, VisitResult.Color.GRAY);
-        component.add(integer);
-        for (Integer adjacent : getAdjacent(integer)) {
-            if (result.getColor(adjacent) == VisitResult.Color.WHITE) {
-                dfsComponent(adjacent, result, component);
-            }
+    /** Distanze e predecessori di Dijkstra, senza costruire il grafo dell'albero */
+    public ShortestPaths getDijkstraPaths(int source, boolean pairingHeap) throws UnsupportedOperationException, IllegalArgumentException {
+        if (source < 0 || source >= matrix.vertexCount()) throw new IllegalArgumentException();
+
+        return Dijkstra.compute(matrix, weights, source, pairingHeap);
+    }
+
+    /**
+     * Cammino minimo da source a target con Dijkstra, fermandosi appena target e' estratto.
+     * Se ci sono landmark validi ({@link #prepareLandmarks}) la ricerca e' A* con le stime ALT.
+     */
+    public Route shortestPath(int source, int target) throws UnsupportedOperationException, IllegalArgumentException {
+        return shortestPath(source, target, false);
+    }
+
+    /** Con bidirectional la ricerca parte anche da target all'indietro sugli archi entranti, senza landmark */
+    public Route shortestPath(int source, int target, boolean bidirectional) throws UnsupportedOperationException, IllegalArgumentException {
+        PathSearch search = pathSearch(source, target);
+        if (bidirectional) return search.bidirectional(weights, source, target);
+        return search.aStar(weights, source, target, landmarks == null ? null : landmarks.towards(target));
+    }
+
+    /**
+     * Sceglie k landmark e ne calcola le distanze, usate poi da {@link #shortestPath(int, int)}.
+     * Con compact le tabelle sono in float. Restano valide finche' non si aggiungono o tolgono
+     * vertici o archi o si cambia un peso; dopo si torna a Dijkstra finche' non si richiama questo metodo.
+     */
+    public Landmarks prepareLandmarks(int k, Landmarks.Strategy strategy, boolean compact) throws UnsupportedOperationException, IllegalArgumentException {
+        if (k < 1 || strategy == null) throw new IllegalArgumentException();
+
+        landmarks = Landmarks.compute(matrix, weights, k, strategy, compact);
+        return landmarks;
+    }
+
+    /** Landmark attuali, null se non ci sono o non sono piu' validi */
+    public Landmarks getLandmarks() {
+        return landmarks;
+    }
+
+    /**
+     * Cammino minimo con A*: heuristic da' per ogni vertice una stima della distanza da target
+     * che non deve superare quella vera. Route.settled() dice quanti vertici sono stati estratti.
+     */
+    public Route aStar(int source, int target, IntToDoubleFunction heuristic) throws UnsupportedOperationException, IllegalArgumentException {
+        if (heuristic == null) throw new IllegalArgumentException();
+
+        return pathSearch(source, target).aStar(weights, source, target, heuristic);
+    }
+
+    private PathSearch pathSearch(int source, int target) throws IllegalArgumentException {
+        int n = matrix.vertexCount();
+        if (source < 0 || source >= n || target < 0 || target >= n) throw new IllegalArgumentException();
+
+        if (search == null || search.vertexCount() != n) {
+            search = new PathSearch(matrix);
         }
-        result.setColor(integer, VisitResult.Color.BLACK);
+        return search;
     }
 
-    @Override
-    public Set<Set<Integer>> connectedComponents() throws UnsupportedOperationException {
-        throw new UnsupportedOperationException();
+    /**
+     * Distanze e predecessori con il delta-stepping parallelo sui thread del pool: secchi larghi delta
+     * (un valore vicino al peso medio degli archi e' un buon inizio), pesi non negativi.
+     */
+    public ShortestPaths getDeltaSteppingPaths(int source, double delta, ForkJoinPool pool) throws UnsupportedOperationException, IllegalArgumentException {
+        if (source < 0 || source >= matrix.vertexCount()) throw new IllegalArgumentException();
+
+        return DeltaStepping.compute(matrix, weights, source, delta, pool);
     }
 
-    // Non implementare
-    @Override
-    public WeightedGraph getBellmanFordShortestPaths(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        return null;
+    /**
+     * Johnson tra tutte le coppie: consumer riceve la riga di distanze e predecessori di ogni sorgente,
+     * dai thread del pool e in ordine qualsiasi. Con un ciclo negativo lancia {@link NegativeCycleException}.
+     */
+    public void forEachJohnsonRow(ForkJoinPool pool, Johnson.RowConsumer consumer) throws UnsupportedOperationException, IllegalArgumentException {
+        if (pool == null || consumer == null) throw new IllegalArgumentException();
+
+        Johnson.prepare(matrix, weights).forEachRow(pool, consumer);
     }
 
-    // Non implementare
-    @Override
-    public WeightedGraph getDijkstraShortestPaths(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        return null;
+    /** Johnson tra tutte le coppie con la matrice delle distanze scritta in file, vedi {@link Johnson#writeTo} */
+    public void writeJohnsonDistances(Path file, ForkJoinPool pool) throws IOException, UnsupportedOperationException, IllegalArgumentException {
+        if (file == null || pool == null) throw new IllegalArgumentException();
+
+        Johnson.prepare(matrix, weights).writeTo(file, pool);
+    }
+
+    /** Grafo con tutti i vertici e gli archi predecessore -> vertice, con il loro peso */
+    private IncidMatrixDirWeight shortestPathTree(ShortestPaths paths) {
+        GraphBuilder builder = new GraphBuilder(matrix.vertexCount());
+        for (int v = 0; v < matrix.vertexCount(); v++) {
+            int p = paths.predecessor(v);
+            if (p != ShortestPaths.NONE) {
+                builder.addEdge(p, v, weights[findEdge(p, v)]);
+            }
+        }
+        return builder.buildWeightedGraph();
     }
 
-    // Non implementare
+    /**
+     * Albero di copertura minimo con Prim dal vertice dato, considerando gli archi come non orientati:
+     * copre la componente debolmente connessa del vertice e gli archi mantengono verso e peso originali.
+     */
     @Override
     public WeightedGraph getPrimMST(Integer integer) throws UnsupportedOperationException, IllegalArgumentException {
-        return null;
+        if (integer == null || integer < 0 || integer >= matrix.vertexCount()) throw new IllegalArgumentException();
+
+        return spanningTree(MinimumSpanningTree.prim(matrix, weights, integer));
     }
 
-    // Non implementare
+    /** Foresta di copertura minima con Kruskal, archi considerati non orientati come in {@link #getPrimMST} */
     @Override
     public WeightedGraph getKruskalMST() throws UnsupportedOperationException {
-        return null;
+        return spanningTree(MinimumSpanningTree.kruskal(matrix, weights));
+    }
+
+    /**
+     * Foresta di copertura minima con Boruvka in parallelo sui thread del pool, archi considerati
+     * non orientati come in {@link #getKruskalMST}: un albero per ogni componente debolmente connessa.
+     */
+    public WeightedGraph getBoruvkaMST(ForkJoinPool pool) throws IllegalArgumentException {
+        if (pool == null) throw new IllegalArgumentException();
+
+        return spanningTree(MinimumSpanningTree.boruvka(matrix, weights, pool));
+    }
+
+    /** Grafo con tutti i vertici e le colonne date, costruito in blocco */
+    private IncidMatrixDirWeight spanningTree(int[] columns) {
+        int[] source = new int[columns.length];
+        int[] target = new int[columns.length];
+        double[] weight = new double[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            source[i] = matrix.getSource(columns[i]);
+            target[i] = matrix.getTarget(columns[i]);
+            weight[i] = weights[columns[i]];
+        }
+        return new GraphBuilder(matrix.vertexCount()).addEdges(source, target, weight).buildWeightedGraph();
     }
 
-    // Non implementare
+    /**
+     * Grafo delle distanze: un arco u -> v, con peso la distanza minima, per ogni coppia di vertici
+     * distinti collegati da un cammino. Con un ciclo negativo lancia {@link NegativeCycleException}.
+     */
     @Override
     public WeightedGraph getFloydWarshallShortestPaths() throws UnsupportedOperationException {
-        return null;
+        AllPairsPaths paths = getFloydWarshallPaths(null);
+        int n = matrix.vertexCount();
+        for (int v = 0; v < n; v++) {
+            if (paths.distance(v, v) < 0) {
+                throw new NegativeCycleException(BellmanFord.compute(matrix, weights, v).negativeCycle());
+            }
+        }
+
+        GraphBuilder builder = new GraphBuilder(n);
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                if (u != v && paths.distance(u, v) != INFINITY) builder.addEdge(u, v, paths.distance(u, v));
+            }
+        }
+        return builder.buildWeightedGraph();
     }
 
-}
\ No newline at end of file
+    /** Distanze e successori tra tutte le coppie con Floyd-Warshall a blocchi, in parallelo se pool non e' null */
+    public AllPairsPaths getFloydWarshallPaths(ForkJoinPool pool) throws UnsupportedOperationException {
+        return FloydWarshall.compute(matrix, weights, pool);
+    }
+
+    /** Salva il grafo con i pesi nel formato binario di {@link MappedGraph}, che lo riapre senza ricostruirlo */
+    public void writeTo(Path file) throws IOException {
+        MappedGraph.write(file, matrix, weights);
+    }
+}
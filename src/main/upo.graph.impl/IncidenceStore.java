@@ -0,0 +1,49 @@
+/**
+ * Memorizzazione delle incidenze di un grafo orientato: ogni arco occupa una colonna,
+ * ogni vertice una riga. I cursori restituiti da first/next sono opachi e valgono -1
+ * quando non ci sono altri archi.
+ */
+public interface IncidenceStore {
+    int vertexCount();
+
+    int edgeCount();
+
+    int addVertex();
+
+    /** Rimuove un vertice senza archi incidenti; i vertici successivi scalano di uno */
+    void removeVertex(int vertex);
+
+    /** Aggiunge l'arco e restituisce la sua colonna */
+    int addEdge(int source, int target);
+
+    /**
+     * Rimuove la colonna spostando al suo posto l'ultima.
+     * Restituisce la vecchia colonna dell'arco spostato, -1 se non ne e' stato spostato nessuno.
+     */
+    int removeEdge(int column);
+
+    Incidence getIncidence(int vertex, int column);
+
+    int getSource(int column);
+
+    int getTarget(int column);
+
+    int firstOut(int vertex);
+
+    int nextOut(int vertex, int cursor);
+
+    int outColumn(int cursor);
+
+    int firstIn(int vertex);
+
+    int nextIn(int vertex, int cursor);
+
+    int inColumn(int cursor);
+
+    /**
+     * Prepara gli indici usati dai cursori. Dopo questa chiamata, finche' il grafo non cambia,
+     * le letture si possono fare da piu' thread.
+     */
+    default void compact() {
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Heap binario indicizzato: l'heap contiene gli elementi, position dice dove si trova ognuno,
+ * cosi' decreaseKey risale dalla posizione giusta in O(log n).
+ */
+public class IndexedBinaryHeap implements IndexedPriorityQueue {
+    private final int[] heap;
+    private final int[] position;
+    private final double[] priority;
+    private int size;
+
+    public IndexedBinaryHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        priority = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int element) {
+        return position[element] != -1;
+    }
+
+    @Override
+    public void insert(int element, double priority) {
+        this.priority[element] = priority;
+        heap[size] = element;
+        position[element] = size;
+        siftUp(size++);
+    }
+
+    @Override
+    public void decreaseKey(int element, double priority) {
+        this.priority[element] = priority;
+        siftUp(position[element]);
+    }
+
+    @Override
+    public double minPriority() {
+        return size == 0 ? Double.POSITIVE_INFINITY : priority[heap[0]];
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException();
+
+        int min = heap[0];
+        position[min] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int element = heap[i];
+        double p = priority[element];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (priority[heap[parent]] <= p) break;
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = element;
+        position[element] = i;
+    }
+
+    private void siftDown(int i) {
+        int element = heap[i];
+        double p = priority[element];
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && priority[heap[child + 1]] < priority[heap[child]]) child++;
+            if (priority[heap[child]] >= p) break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = element;
+        position[element] = i;
+    }
+}
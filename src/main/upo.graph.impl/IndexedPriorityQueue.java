@@ -0,0 +1,23 @@
+/**
+ * Coda di priorita' minima sugli interi 0, ..., capacity - 1 con priorita' double,
+ * senza boxing: ogni elemento compare al massimo una volta e la sua priorita' si puo' solo abbassare.
+ */
+public interface IndexedPriorityQueue {
+    boolean isEmpty();
+
+    boolean contains(int element);
+
+    void insert(int element, double priority);
+
+    /** Abbassa la priorita' di un elemento gia' presente */
+    void decreaseKey(int element, double priority);
+
+    /** Priorita' minima tra gli elementi presenti, POSITIVE_INFINITY se la coda e' vuota */
+    double minPriority();
+
+    /** Toglie e restituisce l'elemento con priorita' minima */
+    int poll();
+
+    /** Svuota la coda per riusarla */
+    void clear();
+}
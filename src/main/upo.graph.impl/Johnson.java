@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Cammini minimi tra tutte le coppie con l'algoritmo di Johnson. Un solo Bellman-Ford da una
+ * sorgente virtuale da' i potenziali h; con i pesi ridotti w(u, v) + h(u) - h(v), non negativi,
+ * si fa un Dijkstra per ogni sorgente, in parallelo sui thread di un pool, e si torna alle distanze
+ * vere con d(s, v) = d'(s, v) - h(s) + h(v). Le righe si consegnano una alla volta oppure si
+ * scrivono in un file mappato in memoria: la matrice V x V non deve mai stare tutta nello heap.
+ */
+public class Johnson {
+    /** Sorgenti per task */
+    private static final int ROWS_PER_TASK = 16;
+    private static final double INFINITY = ShortestPaths.INFINITY;
+
+    /** Riceve la riga di una sorgente; viene chiamato dai thread del pool, anche contemporaneamente */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(int source, double[] distance, int[] predecessor);
+    }
+
+    private final IncidenceStore matrix;
+    private final double[] potential;
+    private final double[] reduced;
+
+    private Johnson(IncidenceStore matrix, double[] potential, double[] reduced) {
+        this.matrix = matrix;
+        this.potential = potential;
+        this.reduced = reduced;
+    }
+
+    /**
+     * Calcola i potenziali e i pesi ridotti. Con un ciclo negativo lancia {@link NegativeCycleException}.
+     * La memorizzazione non deve cambiare finche' si usa il risultato.
+     */
+    public static Johnson prepare(IncidenceStore matrix, double[] weights) {
+        ShortestPaths h = BellmanFord.potentials(matrix, weights);
+        if (h.hasNegativeCycle()) throw new NegativeCycleException(h.negativeCycle());
+
+        double[] potential = h.distances();
+        double[] reduced = new double[matrix.edgeCount()];
+        for (int i = 0; i < reduced.length; i++) {
+            // l'arrotondamento puo' dare -0.000...1 sugli archi dei cammini minimi
+            reduced[i] = Math.max(0, weights[i] + potential[matrix.getSource(i)] - potential[matrix.getTarget(i)]);
+        }
+        matrix.compact();
+        return new Johnson(matrix, potential, reduced);
+    }
+
+    /** Potenziale h(vertex) trovato da Bellman-Ford */
+    public double potential(int vertex) {
+        return potential[vertex];
+    }
+
+    /** Una riga di distanze e predecessori vere da source, allocata per la chiamata */
+    public ShortestPaths row(int source) {
+        ShortestPaths paths = Dijkstra.computeNonNegative(matrix, reduced, source);
+        double[] distance = paths.distances();
+        for (int v = 0; v < distance.length; v++) {
+            if (distance[v] != INFINITY) distance[v] += potential[v] - potential[source];
+        }
+        return paths;
+    }
+
+    /**
+     * Chiama consumer per ogni sorgente, in ordine qualsiasi e dai thread del pool.
+     * Gli array passati sono del consumer: non vengono riusati per altre righe.
+     */
+    public void forEachRow(ForkJoinPool pool, RowConsumer consumer) {
+        pool.invoke(new Rows(0, matrix.vertexCount(), (from, to) -> {
+            for (int source = from; source < to; source++) {
+                ShortestPaths paths = row(source);
+                consumer.accept(source, paths.distances(), paths.predecessors());
+            }
+        }));
+    }
+
+    /**
+     * Scrive la matrice delle distanze in file: V x V double little-endian per righe, senza
+     * intestazione, quindi d(u, v) sta all'offset (u * V + v) * 8. Ogni task mappa solo le
+     * proprie righe, e sull'heap c'e' al piu' una riga per thread.
+     */
+    public void writeTo(Path file, ForkJoinPool pool) throws IOException {
+        int n = matrix.vertexCount();
+        long rowBytes = (long) n * Double.BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // il file si allunga una volta sola qui, non da piu' thread durante le map
+            if (n > 0) channel.write(ByteBuffer.allocate(1), n * rowBytes - 1);
+            pool.invoke(new Rows(0, n, (from, to) -> {
+                MappedByteBuffer region;
+                try {
+                    region = channel.map(FileChannel.MapMode.READ_WRITE, from * rowBytes, (to - from) * rowBytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                DoubleBuffer rows = region.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+                for (int source = from; source < to; source++) {
+                    rows.put(row(source).distances());
+                }
+                region.force();
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Lavoro su un intervallo di sorgenti [from, to) */
+    @FunctionalInterface
+    private interface Block {
+        void run(int from, int to);
+    }
+
+    /** Sorgenti [from, to), divise a meta' finche' sono piu' di ROWS_PER_TASK */
+    @SuppressWarnings("serial")
+    private static class Rows extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final Block block;
+
+        Rows(int from, int to, Block block) {
+            this.from = from;
+            this.to = to;
+            this.block = block;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                block.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Rows(from, middle, block), new Rows(middle, to, block));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Landmark per la ricerca ALT (A*, Landmark, disuguaglianza Triangolare): per k vertici scelti
+ * si memorizzano le distanze d(L, v) e d(v, L) di tutti i vertici, e dalla disuguaglianza
+ * triangolare d(v, t) >= max(d(v, L) - d(t, L), d(L, t) - d(L, v)) si ottiene una stima
+ * ammissibile per A*. Le tabelle sono righe di k valori per vertice, in float o in double.
+ * Vanno ricalcolate quando il grafo cambia.
+ */
+public class Landmarks {
+    /** Come scegliere i landmark */
+    public enum Strategy {
+        /** Ogni landmark e' il vertice piu' lontano da quelli gia' scelti */
+        FARTHEST,
+        /**
+         * Goldberg e Werneck: nell'albero dei cammini minimi da una radice si scende verso il
+         * sottoalbero in cui le stime attuali sono peggiori e che non contiene landmark
+         */
+        AVOID
+    }
+
+    private static final double INFINITY = ShortestPaths.INFINITY;
+
+    private final int[] landmarks;
+    /** d(L, v) e d(v, L) in float, oppure null se le tabelle sono in double */
+    private final float[] compactFrom;
+    private final float[] compactTo;
+    private final double[] from;
+    private final double[] to;
+    /** Errore massimo della differenza di due valori arrotondati a float, zero per le tabelle in double */
+    private final double slack;
+
+    private Landmarks(int[] landmarks, List<double[]> fromDistances, List<double[]> toDistances, boolean compact) {
+        int k = landmarks.length;
+        int n = k == 0 ? 0 : fromDistances.get(0).length;
+        this.landmarks = landmarks;
+        if (compact) {
+            compactFrom = new float[n * k];
+            compactTo = new float[n * k];
+            from = to = null;
+        } else {
+            from = new double[n * k];
+            to = new double[n * k];
+            compactFrom = compactTo = null;
+        }
+        double largest = 0;
+        for (int i = 0; i < k; i++) {
+            double[] f = fromDistances.get(i);
+            double[] t = toDistances.get(i);
+            for (int v = 0; v < n; v++) {
+                if (f[v] != INFINITY) largest = Math.max(largest, f[v]);
+                if (t[v] != INFINITY) largest = Math.max(largest, t[v]);
+                if (compact) {
+                    compactFrom[v * k + i] = (float) f[v];
+                    compactTo[v * k + i] = (float) t[v];
+                } else {
+                    from[v * k + i] = f[v];
+                    to[v * k + i] = t[v];
+                }
+            }
+        }
+        this.slack = compact ? 2 * Math.ulp((float) largest) : 0;
+    }
+
+    /**
+     * Sceglie k landmark (al massimo il numero di vertici) e calcola le loro distanze con
+     * 2k visite di Dijkstra. Con compact le tabelle sono in float: occupano la meta' e la stima
+     * viene abbassata dell'errore di arrotondamento, cosi' resta ammissibile.
+     */
+    public static Landmarks compute(IncidenceStore matrix, double[] weights, int k, Strategy strategy, boolean compact) {
+        int n = matrix.vertexCount();
+        k = Math.min(k, n);
+        int[] chosen = new int[k];
+        List<double[]> fromDistances = new ArrayList<>();
+        List<double[]> toDistances = new ArrayList<>();
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, INFINITY);
+        Random random = new Random(n);
+
+        for (int i = 0; i < k; i++) {
+            int landmark;
+            if (i == 0) {
+                landmark = farthest(Dijkstra.compute(matrix, weights, 0, false).distances(), chosen, 0);
+            } else if (strategy == Strategy.AVOID) {
+                landmark = avoid(matrix, weights, random.nextInt(n), chosen, i, fromDistances, toDistances);
+                if (landmark == -1) landmark = farthest(nearest, chosen, i);
+            } else {
+                landmark = farthest(nearest, chosen, i);
+            }
+            chosen[i] = landmark;
+
+            double[] f = Dijkstra.compute(matrix, weights, landmark, false).distances();
+            fromDistances.add(f);
+            toDistances.add(Dijkstra.computeReverse(matrix, weights, landmark).distances());
+            for (int v = 0; v < n; v++) {
+                nearest[v] = Math.min(nearest[v], f[v]);
+            }
+        }
+        return new Landmarks(chosen, fromDistances, toDistances, compact);
+    }
+
+    /** Vertice non ancora scelto con distanza massima (INFINITY conta come la massima) */
+    private static int farthest(double[] distance, int[] chosen, int count) {
+        int best = -1;
+        for (int v = 0; v < distance.length; v++) {
+            if (isChosen(v, chosen, count)) continue;
+            if (best == -1 || distance[v] > distance[best]) best = v;
+        }
+        return best;
+    }
+
+    private static boolean isChosen(int v, int[] chosen, int count) {
+        for (int i = 0; i < count; i++) {
+            if (chosen[i] == v) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Strategia avoid: dall'albero dei cammini minimi di una radice casuale, peso di v = d(r, v) meno la
+     * stima attuale; la taglia di un sottoalbero e' la somma dei pesi, zero se contiene un landmark.
+     * Dalla radice si scende sempre nel figlio con taglia massima finche' ce n'e' uno con taglia
+     * positiva. -1 se si finisce su un landmark.
+     */
+    private static int avoid(IncidenceStore matrix, double[] weights, int root, int[] chosen, int count,
+                             List<double[]> fromDistances, List<double[]> toDistances) {
+        int n = matrix.vertexCount();
+        ShortestPaths tree = Dijkstra.compute(matrix, weights, root, false);
+        double[] distance = tree.distances();
+        int[] parent = tree.predecessors();
+
+        // figli in ordine di visita dalla radice: order e' un ordine top-down dell'albero
+        int[] offset = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (parent[v] != ShortestPaths.NONE) offset[parent[v] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offset[v + 1] += offset[v];
+        }
+        int[] children = new int[offset[n]];
+        int[] fill = Arrays.copyOf(offset, n);
+        for (int v = 0; v < n; v++) {
+            if (parent[v] != ShortestPaths.NONE) children[fill[parent[v]]++] = v;
+        }
+        int[] order = new int[n];
+        int size = 0;
+        order[size++] = root;
+        for (int head = 0; head < size; head++) {
+            int v = order[head];
+            for (int c = offset[v]; c < offset[v + 1]; c++) {
+                order[size++] = children[c];
+            }
+        }
+
+        double[] weight = new double[n];
+        boolean[] covered = new boolean[n];
+        for (int i = size - 1; i >= 0; i--) {
+            int v = order[i];
+            double bound = 0;
+            for (int l = 0; l < count; l++) {
+                double a = toDistances.get(l)[root] - toDistances.get(l)[v];
+                double b = fromDistances.get(l)[v] - fromDistances.get(l)[root];
+                if (a > bound) bound = a;
+                if (b > bound) bound = b;
+            }
+            weight[v] += Math.max(0, distance[v] - bound);
+            covered[v] |= isChosen(v, chosen, count);
+            if (covered[v] && v != root) weight[v] = 0;
+            if (parent[v] != ShortestPaths.NONE) {
+                weight[parent[v]] += weight[v];
+                covered[parent[v]] |= covered[v];
+            }
+        }
+
+        int v = root;
+        while (offset[v] < offset[v + 1]) {
+            int next = children[offset[v]];
+            for (int c = offset[v] + 1; c < offset[v + 1]; c++) {
+                if (weight[children[c]] > weight[next]) next = children[c];
+            }
+            if (weight[next] == 0) break;
+            v = next;
+        }
+        return isChosen(v, chosen, count) ? -1 : v;
+    }
+
+    public int[] landmarks() {
+        return landmarks;
+    }
+
+    public int size() {
+        return landmarks.length;
+    }
+
+    /** Vertici coperti dalle tabelle: finche' il grafo non cambia e' il numero di vertici del grafo */
+    public int vertexCount() {
+        int k = landmarks.length;
+        if (k == 0) return 0;
+        return (from != null ? from.length : compactFrom.length) / k;
+    }
+
+    /** Stima per difetto di d(vertex, target), INFINITY se target non e' raggiungibile da vertex */
+    public double lowerBound(int vertex, int target) {
+        return towards(target).applyAsDouble(vertex);
+    }
+
+    /**
+     * Stima verso un target fisso, da passare ad A*: le distanze del target si leggono una volta,
+     * poi per ogni vertice si scorre la sua riga di k valori.
+     */
+    public IntToDoubleFunction towards(int target) {
+        int k = landmarks.length;
+        double[] targetFrom = new double[k];
+        double[] targetTo = new double[k];
+        for (int i = 0; i < k; i++) {
+            targetFrom[i] = from(target * k + i);
+            targetTo[i] = to(target * k + i);
+        }
+
+        return vertex -> {
+            double best = 0;
+            for (int i = 0; i < k; i++) {
+                // INFINITY - INFINITY da' NaN, che nei confronti e' sempre scartato
+                double a = difference(to(vertex * k + i), targetTo[i]);
+                double b = difference(targetFrom[i], from(vertex * k + i));
+                if (a > best) best = a;
+                if (b > best) best = b;
+            }
+            return best;
+        };
+    }
+
+    private double from(int cell) {
+        return from != null ? from[cell] : compactFrom[cell];
+    }
+
+    private double to(int cell) {
+        return to != null ? to[cell] : compactTo[cell];
+    }
+
+    /**
+     * a - b; con le tabelle in float si toglie anche l'errore di arrotondamento, tranne quando
+     * la differenza e' INFINITY (target non raggiungibile) o NaN.
+     */
+    private double difference(double a, double b) {
+        double d = a - b;
+        return d < INFINITY ? d - slack : d;
+    }
+}
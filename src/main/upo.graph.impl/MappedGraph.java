@@ -0,0 +1,329 @@
+import upo.graph.base.Edge;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.zip.CRC32C;
+
+/**
+ * Grafo in sola lettura letto da un file mappato in memoria: le adiacenze e i pesi non vengono
+ * copiati sull'heap ma letti dal buffer, quindi l'apertura costa solo la lettura dell'intestazione
+ * e le pagine del file sono condivise tra i processi attraverso la page cache.
+ * <p>
+ * Formato (versione 1, little-endian):
+ * <pre>
+ * intestazione   int magic "UPOG", int versione, int flag (1 = pesato), int V, int E, int 0
+ * offset         int[V + 1], gli archi uscenti di v sono [offset[v], offset[v + 1])
+ * destinazioni   int[E], ordinate per destinazione dentro ogni vertice
+ * (allineamento a 8 byte)
+ * pesi           double[E], solo se pesato, nello stesso ordine delle destinazioni
+ * checksum       long, CRC32C di tutti i byte precedenti
+ * </pre>
+ * Ogni sezione si mappa a parte, quindi deve stare sotto i 2 GB.
+ */
+public class MappedGraph {
+    public static final int MAGIC = 'U' | 'P' << 8 | 'O' << 16 | 'G' << 24;
+    public static final int VERSION = 1;
+    private static final int WEIGHTED = 1;
+    private static final int HEADER_BYTES = 24;
+    /** Byte scritti per volta */
+    private static final int CHUNK = 1 << 20;
+
+    private final int vertices;
+    private final int edges;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    /** null se il file non ha pesi */
+    private final DoubleBuffer weights;
+    private final FileChannel channel;
+
+    private MappedGraph(int vertices, int edges, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights, FileChannel channel) {
+        this.vertices = vertices;
+        this.edges = edges;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.channel = channel;
+    }
+
+    /**
+     * Scrive la memorizzazione (e i pesi per colonna, se non null) nel formato del file.
+     * Usato da IncidMatrixDir.writeTo e IncidMatrixDirWeight.writeTo.
+     */
+    static void write(Path file, IncidenceStore matrix, double[] weights) throws IOException {
+        int n = matrix.vertexCount();
+        int m = matrix.edgeCount();
+        int[] offset = new int[n + 1];
+        // (destinazione << 32) | colonna, ordinati dentro ogni vertice
+        long[] out = new long[m];
+        for (int v = 0; v < n; v++) {
+            int size = offset[v];
+            for (int c = matrix.firstOut(v); c != -1; c = matrix.nextOut(v, c)) {
+                int col = matrix.outColumn(c);
+                out[size++] = (long) matrix.getTarget(col) << 32 | col;
+            }
+            Arrays.sort(out, offset[v], size);
+            offset[v + 1] = size;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(channel);
+            writer.putInt(MAGIC);
+            writer.putInt(VERSION);
+            writer.putInt(weights != null ? WEIGHTED : 0);
+            writer.putInt(n);
+            writer.putInt(m);
+            writer.putInt(0);
+            for (int v = 0; v <= n; v++) {
+                writer.putInt(offset[v]);
+            }
+            for (int i = 0; i < m; i++) {
+                writer.putInt((int) (out[i] >>> 32));
+            }
+            if (weights != null) {
+                if (writer.position % Double.BYTES != 0) writer.putInt(0);
+                for (int i = 0; i < m; i++) {
+                    writer.putDouble(weights[(int) out[i]]);
+                }
+            }
+            writer.finish();
+        }
+    }
+
+    /** Scrittura a blocchi che tiene il CRC di tutto quello che passa */
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C checksum = new CRC32C();
+        private long position;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) flush();
+            buffer.putInt(value);
+            position += Integer.BYTES;
+        }
+
+        void putDouble(double value) throws IOException {
+            if (buffer.remaining() < Double.BYTES) flush();
+            buffer.putDouble(value);
+            position += Double.BYTES;
+        }
+
+        void finish() throws IOException {
+            flush();
+            buffer.putLong(checksum.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Apre il file e ne mappa le sezioni. Si controllano l'intestazione, la lunghezza e gli offset
+     * (offset[0] = 0, non decrescenti, offset[V] = E), che costano O(V); non il checksum, che
+     * richiederebbe di leggere tutto il file: per quello c'e' {@link #checksumMatches()}.
+     * Le destinazioni si controllano solo quando si copiano con {@link #toGraph()}.
+     * Il file va chiuso con {@link #close()}; i buffer restano validi finche' il grafo e' raggiungibile.
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) != -1) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) throw new IOException("Non e' un file di grafo");
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Versione " + version + " non supportata");
+            boolean weighted = (header.getInt() & WEIGHTED) != 0;
+            int n = header.getInt();
+            int m = header.getInt();
+            if (n < 0 || m < 0) throw new IOException("Intestazione non valida");
+
+            long offsetsAt = HEADER_BYTES;
+            long targetsAt = offsetsAt + (long) (n + 1) * Integer.BYTES;
+            long end = targetsAt + (long) m * Integer.BYTES;
+            long weightsAt = (end + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+            if (weighted) end = weightsAt + (long) m * Double.BYTES;
+            if (channel.size() != end + Long.BYTES) throw new IOException("Lunghezza del file non valida");
+
+            IntBuffer offsets = map(channel, offsetsAt, (long) (n + 1) * Integer.BYTES).asIntBuffer();
+            checkOffsets(offsets, n, m);
+            IntBuffer targets = map(channel, targetsAt, (long) m * Integer.BYTES).asIntBuffer();
+            DoubleBuffer weights = weighted ? map(channel, weightsAt, (long) m * Double.BYTES).asDoubleBuffer() : null;
+            return new MappedGraph(n, m, offsets, targets, weights, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Gli offset devono partire da 0, non scendere mai e finire a m */
+    private static void checkOffsets(IntBuffer offsets, int n, int m) throws IOException {
+        if (offsets.get(0) != 0 || offsets.get(n) != m) throw new IOException("Offset non validi");
+        for (int v = 0; v < n; v++) {
+            if (offsets.get(v) > offsets.get(v + 1)) throw new IOException("Offset non validi al vertice " + v);
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) throw new UnsupportedOperationException("Sezione del file oltre i 2 GB");
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Rilegge tutto il file e confronta il CRC32C con quello scritto in fondo */
+    public boolean checksumMatches() throws IOException {
+        long size = channel.size() - Long.BYTES;
+        CRC32C checksum = new CRC32C();
+        for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+            checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Integer.MAX_VALUE, size - position)));
+        }
+        ByteBuffer stored = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (stored.hasRemaining() && channel.read(stored, size + stored.position()) != -1) {
+        }
+        return stored.getLong(0) == checksum.getValue();
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public int size() {
+        return vertices;
+    }
+
+    public int edgeCount() {
+        return edges;
+    }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    public Set<Integer> getAdjacent(Integer integer) throws NoSuchElementException {
+        if (integer >= vertices || integer < 0) throw new NoSuchElementException();
+
+        Set<Integer> adjacent = new HashSet<>();
+        for (int i = offsets.get(integer); i < offsets.get(integer + 1); i++) {
+            adjacent.add(targets.get(i));
+        }
+        return adjacent;
+    }
+
+    /** Numero di archi uscenti da vertex */
+    public int outDegree(int vertex) throws NoSuchElementException {
+        if (vertex >= vertices || vertex < 0) throw new NoSuchElementException();
+
+        return offsets.get(vertex + 1) - offsets.get(vertex);
+    }
+
+    /** Destinazione dell'i-esimo arco uscente da vertex, in ordine crescente */
+    public int getAdjacent(int vertex, int i) throws NoSuchElementException, IndexOutOfBoundsException {
+        if (i < 0 || i >= outDegree(vertex)) throw new IndexOutOfBoundsException();
+
+        return targets.get(offsets.get(vertex) + i);
+    }
+
+    public boolean isAdjacent(Integer integer, Integer integer1) throws IllegalArgumentException {
+        return find(EdgeKey.pack(integer, integer1)) != -1;
+    }
+
+    public boolean containsEdge(Edge edge) throws IllegalArgumentException {
+        return find(EdgeKey.of(edge)) != -1;
+    }
+
+    public double getEdgeWeight(Edge edge) throws IllegalArgumentException, NoSuchElementException {
+        return getEdgeWeight(EdgeKey.of(edge));
+    }
+
+    /** Come {@link #getEdgeWeight(Edge)} con l'arco codificato da {@link EdgeKey}; senza pesi lancia UnsupportedOperationException */
+    public double getEdgeWeight(long edge) throws IllegalArgumentException, NoSuchElementException {
+        if (weights == null) throw new UnsupportedOperationException("Il file non ha pesi");
+
+        int i = find(edge);
+        if (i == -1) throw new NoSuchElementException();
+
+        return weights.get(i);
+    }
+
+    /** Posizione dell'arco tra le destinazioni, con una ricerca binaria tra gli uscenti della sorgente; -1 se manca */
+    private int find(long edge) throws IllegalArgumentException {
+        int source = EdgeKey.source(edge);
+        int target = EdgeKey.target(edge);
+        if (source < 0 || source >= vertices || target < 0 || target >= vertices) throw new IllegalArgumentException();
+
+        int low = offsets.get(source);
+        int high = offsets.get(source + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int t = targets.get(middle);
+            if (t < target) {
+                low = middle + 1;
+            } else if (t > target) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copia modificabile sull'heap, costruita in blocco con {@link GraphBuilder}.
+     * Se una destinazione e' fuori da [0, V) il file e' corrotto e si lancia IllegalStateException.
+     */
+    public IncidMatrixDir toGraph() {
+        return builder().buildGraph();
+    }
+
+    /** Come {@link #toGraph()}; se il file non ha pesi gli archi hanno peso INFINITY */
+    public IncidMatrixDirWeight toWeightedGraph() {
+        return builder().buildWeightedGraph();
+    }
+
+    private GraphBuilder builder() {
+        int[] source = new int[edges];
+        int[] target = new int[edges];
+        for (int v = 0; v < vertices; v++) {
+            for (int i = offsets.get(v); i < offsets.get(v + 1); i++) {
+                source[i] = v;
+                target[i] = targets.get(i);
+                if (target[i] < 0 || target[i] >= vertices) {
+                    throw new IllegalStateException("Destinazione " + target[i] + " fuori dai vertici, in posizione " + i);
+                }
+            }
+        }
+        GraphBuilder builder = new GraphBuilder(vertices);
+        if (weights == null) return builder.addEdges(source, target);
+
+        double[] weight = new double[edges];
+        weights.get(0, weight);
+        return builder.addEdges(source, target, weight);
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Matrice di incidenza densa: una cella per ogni coppia vertice/arco. Gli estremi di ogni colonna
+ * sono tenuti anche in due array, cosi' getSource e getTarget costano O(1); i cursori invece
+ * scorrono la riga del vertice, O(E) per vertice: per i grafi grandi c'e' {@link SparseIncidenceStore}.
+ */
+public class MatrixIncidenceStore implements IncidenceStore {
+    private int numberOfVertices;
+    private int numberOfEdge;
+    private final ArrayList<ArrayList<Incidence>> matrix;
+    /** Sorgente e destinazione di ogni colonna */
+    private int[] source;
+    private int[] target;
+
+    public MatrixIncidenceStore() {
+        this.numberOfVertices = 0;
+        this.numberOfEdge = 0;
+        this.matrix = new ArrayList<>();
+        this.source = new int[16];
+        this.target = new int[16];
+    }
+
+    /** Matrice riempita in un solo passaggio, con le righe gia' della dimensione finale */
+    MatrixIncidenceStore(int vertices, int[] source, int[] target) {
+        this.numberOfVertices = vertices;
+        this.numberOfEdge = source.length;
+        this.matrix = new ArrayList<>(vertices);
+        this.source = Arrays.copyOf(source, Math.max(16, numberOfEdge));
+        this.target = Arrays.copyOf(target, Math.max(16, numberOfEdge));
+        for (int i = 0; i < vertices; i++) {
+            matrix.add(new ArrayList<>(Collections.nCopies(numberOfEdge, Incidence.NONE)));
+        }
+        for (int i = 0; i < numberOfEdge; i++) {
+            matrix.get(target[i]).set(i, Incidence.TARGET);
+            matrix.get(source[i]).set(i, Incidence.SOURCE);
+        }
+    }
+
+    @Override
+    public int vertexCount() {
+        return numberOfVertices;
+    }
+
+    @Override
+    public int edgeCount() {
+        return numberOfEdge;
+    }
+
+    @Override
+    public int addVertex() {
+        ArrayList<Incidence> newVertex = new ArrayList<>();
+        for (int i = 0; i < numberOfEdge; i++) {
+            newVertex.add(Incidence.NONE);
+        }
+        matrix.add(newVertex);
+        numberOfVertices++;
+
+        return numberOfVertices - 1;
+    }
+
+    @Override
+    public void removeVertex(int vertex) {
+        matrix.remove(vertex);
+        for (int i = 0; i < numberOfEdge; i++) {
+            if (source[i] > vertex) source[i]--;
+            if (target[i] > vertex) target[i]--;
+        }
+        numberOfVertices--;
+    }
+
+    @Override
+    public int addEdge(int source, int target) {
+        if (numberOfEdge == this.source.length) {
+            this.source = Arrays.copyOf(this.source, numberOfEdge * 2);
+            this.target = Arrays.copyOf(this.target, numberOfEdge * 2);
+        }
+        this.source[numberOfEdge] = source;
+        this.target[numberOfEdge] = target;
+        for (int i = 0; i < numberOfVertices; i++) {
+            if (i == source) {
+                matrix.get(i).add(Incidence.SOURCE);
+            } else if (i == target) {
+                matrix.get(i).add(Incidence.TARGET);
+            } else {
+                matrix.get(i).add(Incidence.NONE);
+            }
+        }
+        numberOfEdge++;
+
+        return numberOfEdge - 1;
+    }
+
+    @Override
+    public int removeEdge(int column) {
+        int last = numberOfEdge - 1;
+        for (ArrayList<Incidence> row : matrix) {
+            row.set(column, row.get(last));
+            row.remove(last);
+        }
+        source[column] = source[last];
+        target[column] = target[last];
+        numberOfEdge--;
+
+        return last != column ? last : -1;
+    }
+
+    @Override
+    public Incidence getIncidence(int vertex, int column) {
+        return matrix.get(vertex).get(column);
+    }
+
+    @Override
+    public int getSource(int column) {
+        return source[column];
+    }
+
+    @Override
+    public int getTarget(int column) {
+        return target[column];
+    }
+
+    @Override
+    public int firstOut(int vertex) {
+        return nextOut(vertex, -1);
+    }
+
+    @Override
+    public int nextOut(int vertex, int cursor) {
+        return findInRow(vertex, cursor + 1, Incidence.SOURCE);
+    }
+
+    @Override
+    public int outColumn(int cursor) {
+        return cursor;
+    }
+
+    @Override
+    public int firstIn(int vertex) {
+        return nextIn(vertex, -1);
+    }
+
+    @Override
+    public int nextIn(int vertex, int cursor) {
+        ArrayList<Incidence> row = matrix.get(vertex);
+        for (int i = cursor + 1; i < numberOfEdge; i++) {
+            // un cappio ha solo la cella SOURCE, ma l'arco entra anche nel vertice
+            if (row.get(i) == Incidence.TARGET || (row.get(i) == Incidence.SOURCE && target[i] == vertex)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int inColumn(int cursor) {
+        return cursor;
+    }
+
+    private int findInRow(int vertex, int from, Incidence value) {
+        ArrayList<Incidence> row = matrix.get(vertex);
+        for (int i = from; i < numberOfEdge; i++) {
+            if (row.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
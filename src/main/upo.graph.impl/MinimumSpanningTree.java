@@ -0,0 +1,285 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Alberi di copertura minimi, considerando gli archi come non orientati: u -> v e v -> u
+ * collegano gli stessi due vertici. Il risultato sono le colonne degli archi scelti,
+ * da cui il grafo ricostruisce l'albero con i versi e i pesi originali.
+ */
+public class MinimumSpanningTree {
+    private static final int NONE = ShortestPaths.NONE;
+    /** Vertici o archi per task in Boruvka */
+    private static final int ITEMS_PER_TASK = 1 << 14;
+
+    private MinimumSpanningTree() {
+    }
+
+    /**
+     * Prim da root con un {@link IndexedBinaryHeap} sui vertici: la priorita' di un vertice e' il peso
+     * dell'arco piu' leggero, uscente o entrante, che lo collega all'albero. Copre solo
+     * la componente debolmente connessa di root.
+     */
+    public static int[] prim(IncidenceStore matrix, double[] weights, int root) {
+        int n = matrix.vertexCount();
+        // colonna dell'arco migliore verso l'albero, NONE se il vertice non e' ancora stato toccato
+        int[] via = new int[n];
+        Arrays.fill(via, NONE);
+        boolean[] inTree = new boolean[n];
+        IndexedBinaryHeap queue = new IndexedBinaryHeap(n);
+        int[] tree = new int[Math.max(0, n - 1)];
+        int size = 0;
+
+        queue.insert(root, 0);
+        while (!queue.isEmpty()) {
+            int vertex = queue.poll();
+            inTree[vertex] = true;
+            if (vertex != root) tree[size++] = via[vertex];
+
+            for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                int col = matrix.outColumn(c);
+                offer(queue, via, inTree, weights, matrix.getTarget(col), col);
+            }
+            for (int c = matrix.firstIn(vertex); c != -1; c = matrix.nextIn(vertex, c)) {
+                int col = matrix.inColumn(c);
+                offer(queue, via, inTree, weights, matrix.getSource(col), col);
+            }
+        }
+        return Arrays.copyOf(tree, size);
+    }
+
+    private static void offer(IndexedBinaryHeap queue, int[] via, boolean[] inTree, double[] weights, int vertex, int col) {
+        if (inTree[vertex]) return;
+
+        if (via[vertex] == NONE) {
+            via[vertex] = col;
+            queue.insert(vertex, weights[col]);
+        } else if (weights[col] < weights[via[vertex]]) {
+            via[vertex] = col;
+            queue.decreaseKey(vertex, weights[col]);
+        }
+    }
+
+    /**
+     * Kruskal: gli archi si ordinano con {@link Arrays#parallelSort(long[])} su chiavi long con
+     * il peso nei 32 bit alti e la colonna nei 32 bassi, poi si uniscono con {@link UnionFind}
+     * fermandosi a V - 1 archi. Con piu' componenti il risultato e' una foresta.
+     */
+    public static int[] kruskal(IncidenceStore matrix, double[] weights) {
+        int n = matrix.vertexCount();
+        int m = matrix.edgeCount();
+        long[] keys = sortedEdges(weights, m, ForkJoinPool.commonPool());
+
+        UnionFind forest = new UnionFind(n);
+        int[] tree = new int[Math.max(0, n - 1)];
+        int size = 0;
+        for (int i = 0; i < m && size < n - 1; i++) {
+            int col = (int) keys[i];
+            if (forest.union(matrix.getSource(col), matrix.getTarget(col))) {
+                tree[size++] = col;
+            }
+        }
+        return Arrays.copyOf(tree, size);
+    }
+
+    /**
+     * Foresta di copertura minima con Boruvka sui thread del pool. A ogni giro ogni componente
+     * cerca in parallelo l'arco piu' leggero che ne esce, con una CAS che tiene il minimo;
+     * gli archi scelti si aggiungono con {@link ConcurrentUnionFind} e le componenti si contraggono.
+     * Gli archi interni a una componente si scartano, e ci si ferma quando non ne resta nessuno.
+     * I giri sono al massimo log2 V, perche' ogni componente si fonde almeno con un'altra.
+     * <p>
+     * Un double non sta in una chiave long insieme alla colonna: gli archi si ordinano una volta come
+     * in {@link #kruskal} e la CAS lavora sulla posizione nell'ordine, che rispetta (peso, colonna).
+     * L'ordine stretto garantisce che gli archi scelti in un giro non formino cicli.
+     */
+    public static int[] boruvka(IncidenceStore matrix, double[] weights, ForkJoinPool pool) {
+        int n = matrix.vertexCount();
+        int m = matrix.edgeCount();
+        matrix.compact();
+
+        long[] keys = sortedEdges(weights, m, pool);
+        int[] order = new int[m];
+        int[] rank = new int[m];
+        int[] from = new int[m];
+        int[] to = new int[m];
+        pool.invoke(new Range(0, m, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                order[i] = (int) keys[i];
+                rank[order[i]] = i;
+                from[order[i]] = matrix.getSource(order[i]);
+                to[order[i]] = matrix.getTarget(order[i]);
+            }
+        }));
+
+        ConcurrentUnionFind forest = new ConcurrentUnionFind(n);
+        int[] component = new int[n];
+        for (int v = 0; v < n; v++) {
+            component[v] = v;
+        }
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(n);
+        int[] tree = new int[Math.max(0, n - 1)];
+        AtomicInteger size = new AtomicInteger();
+        // colonne non ancora interne a una componente; quelle scoperte interne diventano -1
+        int[] active = new int[m];
+        for (int i = 0; i < m; i++) {
+            active[i] = i;
+        }
+        int activeCount = m;
+
+        while (activeCount > 0) {
+            int[] edges = active;
+            pool.invoke(new Range(0, n, (start, end) -> {
+                for (int v = start; v < end; v++) {
+                    cheapest.set(v, Integer.MAX_VALUE);
+                }
+            }));
+            pool.invoke(new Range(0, activeCount, (start, end) -> {
+                for (int i = start; i < end; i++) {
+                    int col = edges[i];
+                    int a = component[from[col]];
+                    int b = component[to[col]];
+                    if (a == b) {
+                        edges[i] = -1;
+                    } else {
+                        lower(cheapest, a, rank[col]);
+                        lower(cheapest, b, rank[col]);
+                    }
+                }
+            }));
+
+            int count = 0;
+            for (int i = 0; i < activeCount; i++) {
+                if (active[i] != -1) active[count++] = active[i];
+            }
+            activeCount = count;
+            if (activeCount == 0) break;
+
+            pool.invoke(new Range(0, n, (start, end) -> {
+                for (int v = start; v < end; v++) {
+                    int best = cheapest.get(v);
+                    // lo stesso arco scelto dalle due componenti si aggiunge una volta sola
+                    if (best != Integer.MAX_VALUE && forest.union(from[order[best]], to[order[best]])) {
+                        tree[size.getAndIncrement()] = order[best];
+                    }
+                }
+            }));
+            pool.invoke(new Range(0, n, (start, end) -> {
+                for (int v = start; v < end; v++) {
+                    component[v] = forest.find(v);
+                }
+            }));
+        }
+        return Arrays.copyOf(tree, size.get());
+    }
+
+    /** Minimo atomico: abbassa cheapest[component] a rank se e' minore */
+    private static void lower(AtomicIntegerArray cheapest, int component, int rank) {
+        int current = cheapest.get(component);
+        while (rank < current && !cheapest.compareAndSet(component, current, rank)) {
+            current = cheapest.get(component);
+        }
+    }
+
+    /** Colonne [0, m) ordinate per peso e poi per colonna, nei 32 bit bassi delle chiavi; l'ordinamento usa i thread di pool */
+    private static long[] sortedEdges(double[] weights, int m, ForkJoinPool pool) {
+        long[] keys = new long[m];
+        for (int i = 0; i < m; i++) {
+            keys[i] = (long) floatKey(weights[i]) << 32 | i;
+        }
+        // parallelSort divide il lavoro tra i thread del pool da cui e' chiamato
+        pool.submit(() -> Arrays.parallelSort(keys)).join();
+        refineTies(keys, weights);
+        return keys;
+    }
+
+    /** Bit del peso arrotondato a float, trasformati in modo che l'ordine degli int sia quello dei pesi */
+    private static int floatKey(double weight) {
+        int bits = Float.floatToIntBits((float) weight);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+
+    private static long doubleKey(double weight) {
+        long bits = Double.doubleToLongBits(weight);
+        return bits ^ ((bits >> 63) & 0x7fffffffffffffffL);
+    }
+
+    /**
+     * L'arrotondamento a float conserva l'ordine ma puo' rendere uguali pesi diversi: nei tratti
+     * con la stessa chiave alta e pesi non tutti uguali si riordina per peso esatto. Pesi che
+     * danno lo stesso float distano meno di 2^31 passi di double (tranne vicino a zero), quindi
+     * la differenza dal minimo sta di nuovo nei 32 bit alti.
+     */
+    private static void refineTies(long[] keys, double[] weights) {
+        int start = 0;
+        while (start < keys.length) {
+            int end = start + 1;
+            boolean mixed = false;
+            double first = weights[(int) keys[start]];
+            while (end < keys.length && keys[end] >>> 32 == keys[start] >>> 32) {
+                mixed |= weights[(int) keys[end]] != first;
+                end++;
+            }
+            if (mixed) {
+                long low = Long.MAX_VALUE;
+                long high = Long.MIN_VALUE;
+                for (int i = start; i < end; i++) {
+                    long key = doubleKey(weights[(int) keys[i]]);
+                    low = Math.min(low, key);
+                    high = Math.max(high, key);
+                }
+                if (high - low <= Integer.MAX_VALUE) {
+                    for (int i = start; i < end; i++) {
+                        int col = (int) keys[i];
+                        keys[i] = (doubleKey(weights[col]) - low) << 32 | col;
+                    }
+                    Arrays.sort(keys, start, end);
+                } else {
+                    // solo double piu' piccoli del minimo float, che diventano tutti 0
+                    Long[] run = new Long[end - start];
+                    for (int i = start; i < end; i++) {
+                        run[i - start] = keys[i];
+                    }
+                    Arrays.sort(run, Comparator.comparingDouble((Long key) -> weights[(int) (long) key]).thenComparingLong(key -> key));
+                    for (int i = start; i < end; i++) {
+                        keys[i] = run[i - start];
+                    }
+                }
+            }
+            start = end;
+        }
+    }
+
+    /** Lavoro su un intervallo di indici [from, to) */
+    @FunctionalInterface
+    private interface Block {
+        void run(int from, int to);
+    }
+
+    /** Indici [from, to), divisi a meta' finche' sono piu' di ITEMS_PER_TASK */
+    @SuppressWarnings("serial")
+    private static class Range extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final Block block;
+
+        Range(int from, int to, Block block) {
+            this.from = from;
+            this.to = to;
+            this.block = block;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ITEMS_PER_TASK) {
+                block.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Range(from, middle, block), new Range(middle, to, block));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+import java.util.Arrays;
+
+/** Cammini minimi non definiti: dalla sorgente si raggiunge un ciclo di peso negativo */
+public class NegativeCycleException extends UnsupportedOperationException {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] cycle;
+
+    public NegativeCycleException(int[] cycle) {
+        super("Ciclo di peso negativo: " + Arrays.toString(cycle));
+        this.cycle = cycle;
+    }
+
+    /** Vertici del ciclo nell'ordine degli archi; dall'ultimo si torna al primo */
+    public int[] getCycle() {
+        return cycle;
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.Arrays;
+
+/**
+ * Matrice di incidenza densa senza oggetti per cella: ogni riga e' un byte[]
+ * in cui ogni cella occupa due bit (0 NONE, 1 SOURCE, 2 TARGET). Gli estremi di ogni colonna
+ * sono tenuti anche in due int[], cosi' getSource e getTarget costano O(1) invece di una
+ * scansione della colonna; i cursori scorrono la riga del vertice.
+ */
+public class PackedIncidenceStore implements IncidenceStore {
+    private static final int NONE = 0;
+    private static final int SOURCE = 1;
+    private static final int TARGET = 2;
+    private static final Incidence[] CODES = {Incidence.NONE, Incidence.SOURCE, Incidence.TARGET};
+
+    private int numberOfVertices;
+    private int numberOfEdge;
+    private int capacity;
+    private byte[][] rows;
+    /** Sorgente e destinazione di ogni colonna, lunghi capacity */
+    private int[] source;
+    private int[] target;
+
+    public PackedIncidenceStore() {
+        this.numberOfVertices = 0;
+        this.numberOfEdge = 0;
+        this.capacity = 16;
+        this.rows = new byte[4][];
+        this.source = new int[capacity];
+        this.target = new int[capacity];
+    }
+
+    /** Matrice riempita in un solo passaggio, con le righe gia' della dimensione finale */
+    PackedIncidenceStore(int vertices, int[] source, int[] target) {
+        this.numberOfVertices = vertices;
+        this.numberOfEdge = source.length;
+        this.capacity = Math.max(16, (numberOfEdge + 3) & ~3);
+        this.rows = new byte[Math.max(4, vertices)][];
+        this.source = Arrays.copyOf(source, capacity);
+        this.target = Arrays.copyOf(target, capacity);
+        for (int i = 0; i < vertices; i++) {
+            rows[i] = new byte[capacity >> 2];
+        }
+        for (int i = 0; i < numberOfEdge; i++) {
+            setCell(target[i], i, TARGET);
+            setCell(source[i], i, SOURCE);
+        }
+    }
+
+    private int cell(int vertex, int column) {
+        return (rows[vertex][column >> 2] >> ((column & 3) << 1)) & 3;
+    }
+
+    private void setCell(int vertex, int column, int code) {
+        int shift = (column & 3) << 1;
+        byte[] row = rows[vertex];
+        row[column >> 2] = (byte) ((row[column >> 2] & ~(3 << shift)) | (code << shift));
+    }
+
+    @Override
+    public int vertexCount() {
+        return numberOfVertices;
+    }
+
+    @Override
+    public int edgeCount() {
+        return numberOfEdge;
+    }
+
+    @Override
+    public int addVertex() {
+        if (numberOfVertices == rows.length) {
+            rows = Arrays.copyOf(rows, numberOfVertices * 2);
+        }
+        rows[numberOfVertices] = new byte[capacity >> 2];
+        numberOfVertices++;
+
+        return numberOfVertices - 1;
+    }
+
+    @Override
+    public void removeVertex(int vertex) {
+        System.arraycopy(rows, vertex + 1, rows, vertex, numberOfVertices - vertex - 1);
+        numberOfVertices--;
+        rows[numberOfVertices] = null;
+        for (int i = 0; i < numberOfEdge; i++) {
+            if (source[i] > vertex) source[i]--;
+            if (target[i] > vertex) target[i]--;
+        }
+    }
+
+    @Override
+    public int addEdge(int source, int target) {
+        if (numberOfEdge == capacity) {
+            capacity *= 2;
+            for (int i = 0; i < numberOfVertices; i++) {
+                rows[i] = Arrays.copyOf(rows[i], capacity >> 2);
+            }
+            this.source = Arrays.copyOf(this.source, capacity);
+            this.target = Arrays.copyOf(this.target, capacity);
+        }
+        this.source[numberOfEdge] = source;
+        this.target[numberOfEdge] = target;
+        setCell(target, numberOfEdge, TARGET);
+        setCell(source, numberOfEdge, SOURCE);
+        numberOfEdge++;
+
+        return numberOfEdge - 1;
+    }
+
+    @Override
+    public int removeEdge(int column) {
+        int last = numberOfEdge - 1;
+        for (int i = 0; i < numberOfVertices; i++) {
+            setCell(i, column, cell(i, last));
+            setCell(i, last, NONE);
+        }
+        source[column] = source[last];
+        target[column] = target[last];
+        numberOfEdge--;
+
+        return last != column ? last : -1;
+    }
+
+    @Override
+    public Incidence getIncidence(int vertex, int column) {
+        return CODES[cell(vertex, column)];
+    }
+
+    @Override
+    public int getSource(int column) {
+        return source[column];
+    }
+
+    @Override
+    public int getTarget(int column) {
+        return target[column];
+    }
+
+    @Override
+    public int firstOut(int vertex) {
+        return nextOut(vertex, -1);
+    }
+
+    @Override
+    public int nextOut(int vertex, int cursor) {
+        for (int i = findInRow(vertex, cursor + 1); i != -1; i = findInRow(vertex, i + 1)) {
+            if (cell(vertex, i) == SOURCE) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int outColumn(int cursor) {
+        return cursor;
+    }
+
+    @Override
+    public int firstIn(int vertex) {
+        return nextIn(vertex, -1);
+    }
+
+    @Override
+    public int nextIn(int vertex, int cursor) {
+        for (int i = findInRow(vertex, cursor + 1); i != -1; i = findInRow(vertex, i + 1)) {
+            // un cappio ha solo la cella SOURCE, ma l'arco entra anche nel vertice
+            if (cell(vertex, i) == TARGET || target[i] == vertex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int inColumn(int cursor) {
+        return cursor;
+    }
+
+    /** Prima colonna non NONE della riga a partire da from; i byte nulli si saltano interi */
+    private int findInRow(int vertex, int from) {
+        byte[] row = rows[vertex];
+        int i = from;
+        while (i < numberOfEdge) {
+            if ((i & 3) == 0 && row[i >> 2] == 0) {
+                i += 4;
+            } else if (cell(vertex, i) != NONE) {
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.NoSuchElementException;
+
+/**
+ * Pairing heap indicizzato su array: ogni nodo ha il primo figlio, il fratello successivo e
+ * prev (il fratello precedente, o il genitore per il primo figlio). decreaseKey stacca il
+ * sottoalbero e lo fonde con la radice in O(1), quindi conviene quando le riduzioni sono molte
+ * rispetto alle estrazioni; poll fonde i figli della radice a coppie in due passate.
+ */
+public class PairingHeap implements IndexedPriorityQueue {
+    private static final int NONE = -1;
+
+    private final int[] child;
+    private final int[] sibling;
+    private final int[] prev;
+    private final double[] priority;
+    private final boolean[] present;
+    /** Radici temporanee della fusione a coppie, e stack per clear */
+    private final int[] pairs;
+    private int root = NONE;
+
+    public PairingHeap(int capacity) {
+        child = new int[capacity];
+        sibling = new int[capacity];
+        prev = new int[capacity];
+        priority = new double[capacity];
+        present = new boolean[capacity];
+        pairs = new int[capacity];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root == NONE;
+    }
+
+    @Override
+    public boolean contains(int element) {
+        return present[element];
+    }
+
+    @Override
+    public void insert(int element, double priority) {
+        this.priority[element] = priority;
+        child[element] = sibling[element] = prev[element] = NONE;
+        present[element] = true;
+        root = link(root, element);
+    }
+
+    @Override
+    public void decreaseKey(int element, double priority) {
+        this.priority[element] = priority;
+        if (element == root) return;
+
+        int before = prev[element];
+        if (child[before] == element) {
+            child[before] = sibling[element];
+        } else {
+            sibling[before] = sibling[element];
+        }
+        if (sibling[element] != NONE) prev[sibling[element]] = before;
+        sibling[element] = prev[element] = NONE;
+        root = link(root, element);
+    }
+
+    @Override
+    public double minPriority() {
+        return root == NONE ? Double.POSITIVE_INFINITY : priority[root];
+    }
+
+    @Override
+    public int poll() {
+        if (root == NONE) throw new NoSuchElementException();
+
+        int min = root;
+        present[min] = false;
+
+        int count = 0;
+        int x = child[min];
+        while (x != NONE) {
+            int a = x;
+            int b = sibling[a];
+            x = b != NONE ? sibling[b] : NONE;
+            sibling[a] = prev[a] = NONE;
+            if (b != NONE) sibling[b] = prev[b] = NONE;
+            pairs[count++] = link(a, b);
+        }
+
+        int merged = count > 0 ? pairs[count - 1] : NONE;
+        for (int i = count - 2; i >= 0; i--) {
+            merged = link(pairs[i], merged);
+        }
+        root = merged;
+        return min;
+    }
+
+    @Override
+    public void clear() {
+        if (root == NONE) return;
+
+        int top = 0;
+        pairs[top++] = root;
+        while (top > 0) {
+            int x = pairs[--top];
+            present[x] = false;
+            for (int c = child[x]; c != NONE; c = sibling[c]) {
+                pairs[top++] = c;
+            }
+        }
+        root = NONE;
+    }
+
+    /** Fonde due alberi senza fratelli: la radice con priorita' maggiore diventa il primo figlio dell'altra */
+    private int link(int a, int b) {
+        if (a == NONE) return b;
+        if (b == NONE) return a;
+        if (priority[b] < priority[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        sibling[b] = child[a];
+        if (child[a] != NONE) prev[child[a]] = b;
+        prev[b] = a;
+        child[a] = b;
+        return a;
+    }
+}
@@ -0,0 +1,285 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Componenti fortemente connesse in parallelo con la decomposizione forward-backward (FW-BW)
+ * su un {@link ForkJoinPool}. Prima si eliminano (trimming) i vertici senza archi entranti o
+ * uscenti tra quelli rimasti, che sono componenti banali; poi, scelto un pivot, la componente
+ * del pivot e' l'intersezione dei vertici raggiungibili in avanti e all'indietro, e le tre parti
+ * rimaste (solo avanti, solo indietro, nessuna delle due) sono sottoproblemi indipendenti.
+ * Le partizioni piccole si chiudono con Pearce ristretto alla partizione.
+ * Le componenti sono le stesse di {@link StronglyConnectedComponents#compute} e anche qui gli id
+ * sono in ordine topologico inverso, ma due componenti non confrontabili possono avere id scambiati.
+ */
+public class ParallelStronglyConnectedComponents {
+    /** Sotto questa dimensione una partizione si risolve in sequenziale */
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+    private static final int TRIMMED = -1;
+
+    private final IncidenceStore matrix;
+    /** Partizione corrente di ogni vertice, TRIMMED quando ha gia' una componente */
+    private final int[] part;
+    private final int[] component;
+    private final boolean[] forward;
+    private final boolean[] backward;
+    private final int[] rindex;
+    private final boolean[] root;
+    private final int[] cursor;
+    private final AtomicInteger nextPart = new AtomicInteger(1);
+    private final AtomicInteger nextComponent = new AtomicInteger();
+
+    private ParallelStronglyConnectedComponents(IncidenceStore matrix) {
+        int n = matrix.vertexCount();
+        this.matrix = matrix;
+        this.part = new int[n];
+        this.component = new int[n];
+        this.forward = new boolean[n];
+        this.backward = new boolean[n];
+        this.rindex = new int[n];
+        this.root = new boolean[n];
+        this.cursor = new int[n];
+    }
+
+    /** I task leggono la memorizzazione da piu' thread: il grafo non deve cambiare durante il calcolo */
+    public static StronglyConnectedComponents compute(IncidenceStore matrix, ForkJoinPool pool) {
+        matrix.compact();
+        ParallelStronglyConnectedComponents scc = new ParallelStronglyConnectedComponents(matrix);
+        int[] remaining = scc.trim();
+        if (remaining.length > 0) {
+            pool.invoke(scc.new Split(remaining, 0));
+        }
+        return StronglyConnectedComponents.fromPartition(matrix, scc.component, scc.nextComponent.get());
+    }
+
+    /**
+     * Toglie uno alla volta i vertici con grado entrante o uscente nullo (contando solo i vertici
+     * rimasti), ognuno dei quali e' una componente da solo. Restituisce i vertici non eliminati.
+     */
+    private int[] trim() {
+        int n = matrix.vertexCount();
+        int[] inDegree = new int[n];
+        int[] outDegree = new int[n];
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            outDegree[matrix.getSource(i)]++;
+            inDegree[matrix.getTarget(i)]++;
+        }
+
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0 || outDegree[v] == 0) {
+                part[v] = TRIMMED;
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail) {
+            int v = queue[head++];
+            component[v] = nextComponent.getAndIncrement();
+            for (int c = matrix.firstOut(v); c != -1; c = matrix.nextOut(v, c)) {
+                int w = matrix.getTarget(matrix.outColumn(c));
+                if (part[w] != TRIMMED && --inDegree[w] == 0) {
+                    part[w] = TRIMMED;
+                    queue[tail++] = w;
+                }
+            }
+            for (int c = matrix.firstIn(v); c != -1; c = matrix.nextIn(v, c)) {
+                int u = matrix.getSource(matrix.inColumn(c));
+                if (part[u] != TRIMMED && --outDegree[u] == 0) {
+                    part[u] = TRIMMED;
+                    queue[tail++] = u;
+                }
+            }
+        }
+
+        int[] remaining = new int[n - tail];
+        int size = 0;
+        for (int v = 0; v < n; v++) {
+            if (part[v] != TRIMMED) remaining[size++] = v;
+        }
+        return remaining;
+    }
+
+    /** Sottoproblema FW-BW: i vertici in vertices hanno tutti part == id */
+    @SuppressWarnings("serial")
+    private class Split extends RecursiveAction {
+        private final int[] vertices;
+        private final int id;
+
+        Split(int[] vertices, int id) {
+            this.vertices = vertices;
+            this.id = id;
+        }
+
+        @Override
+        protected void compute() {
+            if (vertices.length <= SEQUENTIAL_THRESHOLD) {
+                pearce(vertices, id);
+                return;
+            }
+
+            int pivot = vertices[ThreadLocalRandom.current().nextInt(vertices.length)];
+            invokeAll(new Reach(pivot, id, vertices.length, true), new Reach(pivot, id, vertices.length, false));
+
+            int forwardOnly = 0;
+            int backwardOnly = 0;
+            int neither = 0;
+            for (int v : vertices) {
+                if (forward[v] && !backward[v]) forwardOnly++;
+                else if (backward[v] && !forward[v]) backwardOnly++;
+                else if (!forward[v]) neither++;
+            }
+
+            int scc = nextComponent.getAndIncrement();
+            int[][] lists = {new int[forwardOnly], new int[backwardOnly], new int[neither]};
+            int[] ids = {nextPart.getAndIncrement(), nextPart.getAndIncrement(), nextPart.getAndIncrement()};
+            int[] sizes = new int[3];
+            for (int v : vertices) {
+                int which;
+                if (forward[v] && backward[v]) {
+                    component[v] = scc;
+                    part[v] = TRIMMED;
+                    forward[v] = backward[v] = false;
+                    continue;
+                } else if (forward[v]) {
+                    which = 0;
+                } else if (backward[v]) {
+                    which = 1;
+                } else {
+                    which = 2;
+                }
+                forward[v] = backward[v] = false;
+                part[v] = ids[which];
+                lists[which][sizes[which]++] = v;
+            }
+
+            Split[] tasks = new Split[3];
+            int count = 0;
+            for (int i = 0; i < 3; i++) {
+                if (lists[i].length > 0) tasks[count++] = new Split(lists[i], ids[i]);
+            }
+            if (count == 1) {
+                tasks[0].compute();
+            } else if (count > 1) {
+                invokeAll(Arrays.copyOf(tasks, count));
+            }
+        }
+    }
+
+    /** Visita in ampiezza dal pivot restando nella partizione id, in avanti o all'indietro */
+    @SuppressWarnings("serial")
+    private class Reach extends RecursiveAction {
+        private final int pivot;
+        private final int id;
+        private final int capacity;
+        private final boolean outgoing;
+
+        Reach(int pivot, int id, int capacity, boolean outgoing) {
+            this.pivot = pivot;
+            this.id = id;
+            this.capacity = capacity;
+            this.outgoing = outgoing;
+        }
+
+        @Override
+        protected void compute() {
+            boolean[] mark = outgoing ? forward : backward;
+            int[] queue = new int[capacity];
+            int head = 0;
+            int tail = 0;
+            mark[pivot] = true;
+            queue[tail++] = pivot;
+
+            while (head < tail) {
+                int v = queue[head++];
+                if (outgoing) {
+                    for (int c = matrix.firstOut(v); c != -1; c = matrix.nextOut(v, c)) {
+                        int w = matrix.getTarget(matrix.outColumn(c));
+                        if (part[w] == id && !mark[w]) {
+                            mark[w] = true;
+                            queue[tail++] = w;
+                        }
+                    }
+                } else {
+                    for (int c = matrix.firstIn(v); c != -1; c = matrix.nextIn(v, c)) {
+                        int w = matrix.getSource(matrix.inColumn(c));
+                        if (part[w] == id && !mark[w]) {
+                            mark[w] = true;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Pearce iterativo (come {@link StronglyConnectedComponents#compute}) sui soli archi interni
+     * alla partizione; le componenti non attraversano mai le partizioni di FW-BW.
+     */
+    private void pearce(int[] vertices, int id) {
+        int[] callStack = new int[vertices.length];
+        int[] stack = new int[vertices.length];
+        int top = 0;
+        int index = 1;
+        int c = vertices.length - 1;
+
+        for (int start : vertices) {
+            if (rindex[start] != 0) continue;
+
+            int depth = 0;
+            callStack[depth++] = start;
+            rindex[start] = index++;
+            root[start] = true;
+            cursor[start] = matrix.firstOut(start);
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                int cur = cursor[v];
+                if (cur != -1) {
+                    cursor[v] = matrix.nextOut(v, cur);
+                    int w = matrix.getTarget(matrix.outColumn(cur));
+                    if (part[w] != id) continue;
+                    if (rindex[w] == 0) {
+                        callStack[depth++] = w;
+                        rindex[w] = index++;
+                        root[w] = true;
+                        cursor[w] = matrix.firstOut(w);
+                    } else if (rindex[w] < rindex[v]) {
+                        rindex[v] = rindex[w];
+                        root[v] = false;
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (root[v]) {
+                    int scc = nextComponent.getAndIncrement();
+                    index--;
+                    while (top > 0 && rindex[v] <= rindex[stack[top - 1]]) {
+                        int w = stack[--top];
+                        rindex[w] = c;
+                        component[w] = scc;
+                        index--;
+                    }
+                    rindex[v] = c;
+                    component[v] = scc;
+                    c--;
+                } else {
+                    stack[top++] = v;
+                }
+
+                if (depth > 0) {
+                    int u = callStack[depth - 1];
+                    if (rindex[v] < rindex[u]) {
+                        rindex[u] = rindex[v];
+                        root[u] = false;
+                    }
+                }
+            }
+        }
+    }
+}
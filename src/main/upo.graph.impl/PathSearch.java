@@ -0,0 +1,214 @@
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Ricerche di cammino minimo da un vertice a un altro che si fermano appena la risposta e' certa.
+ * Gli array delle distanze sono lunghi V ma vengono allocati una volta sola: dopo ogni ricerca
+ * si riportano a INFINITY solo i vertici toccati, quindi il costo di una ricerca dipende
+ * dalla parte di grafo esplorata e non dalla dimensione del grafo.
+ * Una sola ricerca alla volta per istanza.
+ */
+public class PathSearch {
+    private static final double INFINITY = ShortestPaths.INFINITY;
+    private static final int NONE = ShortestPaths.NONE;
+
+    private final IncidenceStore matrix;
+    private final double[] forward;
+    private final int[] predecessor;
+    private final double[] backward;
+    private final int[] successor;
+    private final IndexedBinaryHeap forwardQueue;
+    private final IndexedBinaryHeap backwardQueue;
+    private final int[] touched;
+    private int touchedCount;
+    private int settled;
+
+    public PathSearch(IncidenceStore matrix) {
+        int n = matrix.vertexCount();
+        this.matrix = matrix;
+        this.forward = new double[n];
+        this.predecessor = new int[n];
+        this.backward = new double[n];
+        this.successor = new int[n];
+        this.forwardQueue = new IndexedBinaryHeap(n);
+        this.backwardQueue = new IndexedBinaryHeap(n);
+        this.touched = new int[n];
+        Arrays.fill(forward, INFINITY);
+        Arrays.fill(backward, INFINITY);
+        Arrays.fill(predecessor, NONE);
+        Arrays.fill(successor, NONE);
+    }
+
+    /** Numero di vertici per cui sono dimensionati gli array */
+    public int vertexCount() {
+        return forward.length;
+    }
+
+    /**
+     * Dijkstra da source che si ferma quando estrae target. Un arco con peso negativo
+     * incontrato durante la ricerca da' UnsupportedOperationException.
+     */
+    public Route shortestPath(double[] weights, int source, int target) {
+        return aStar(weights, source, target, null);
+    }
+
+    /**
+     * A*: come {@link #shortestPath} ma la coda e' ordinata per distanza + heuristic(vertice).
+     * La stima deve essere ammissibile (mai maggiore della distanza vera da target); se non e'
+     * anche consistente un vertice gia' estratto puo' rientrare in coda quando migliora.
+     * Con heuristic null e' Dijkstra.
+     */
+    public Route aStar(double[] weights, int source, int target, IntToDoubleFunction heuristic) {
+        try {
+            reach(source, true, 0);
+            forwardQueue.insert(source, heuristic == null ? 0 : heuristic.applyAsDouble(source));
+            while (!forwardQueue.isEmpty()) {
+                int vertex = forwardQueue.poll();
+                settled++;
+                if (vertex == target) break;
+
+                for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                    int col = matrix.outColumn(c);
+                    int adjacent = matrix.getTarget(col);
+                    double candidate = forward[vertex] + weight(weights, col);
+                    if (candidate < forward[adjacent]) {
+                        double estimate = heuristic == null ? 0 : heuristic.applyAsDouble(adjacent);
+                        update(adjacent, true, candidate, vertex, candidate + estimate);
+                    }
+                }
+            }
+            return new Route(forward[target], forwardPath(source, target), settled);
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * Dijkstra bidirezionale: in avanti da source sugli archi uscenti e all'indietro da target
+     * sugli archi entranti, espandendo ogni volta la direzione con la coda piu' bassa.
+     * mu e' il cammino migliore visto finora tra le due ricerche; ci si ferma quando la somma
+     * delle due code minime non puo' piu' migliorarlo.
+     */
+    public Route bidirectional(double[] weights, int source, int target) {
+        if (source == target) return new Route(0, new int[]{source}, 0);
+
+        try {
+            reach(source, true, 0);
+            reach(target, false, 0);
+            forwardQueue.insert(source, 0);
+            backwardQueue.insert(target, 0);
+            double mu = INFINITY;
+            int meetFrom = source;
+            int meetTo = source;
+
+            while (forwardQueue.minPriority() + backwardQueue.minPriority() < mu) {
+                boolean fromSource = forwardQueue.minPriority() <= backwardQueue.minPriority();
+                int vertex = (fromSource ? forwardQueue : backwardQueue).poll();
+                settled++;
+
+                if (fromSource) {
+                    for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                        int col = matrix.outColumn(c);
+                        int adjacent = matrix.getTarget(col);
+                        double candidate = forward[vertex] + weight(weights, col);
+                        if (candidate < forward[adjacent]) {
+                            update(adjacent, true, candidate, vertex, candidate);
+                        }
+                        if (candidate + backward[adjacent] < mu) {
+                            mu = candidate + backward[adjacent];
+                            meetFrom = vertex;
+                            meetTo = adjacent;
+                        }
+                    }
+                } else {
+                    for (int c = matrix.firstIn(vertex); c != -1; c = matrix.nextIn(vertex, c)) {
+                        int col = matrix.inColumn(c);
+                        int adjacent = matrix.getSource(col);
+                        double candidate = backward[vertex] + weight(weights, col);
+                        if (candidate < backward[adjacent]) {
+                            update(adjacent, false, candidate, vertex, candidate);
+                        }
+                        if (candidate + forward[adjacent] < mu) {
+                            mu = candidate + forward[adjacent];
+                            meetFrom = adjacent;
+                            meetTo = vertex;
+                        }
+                    }
+                }
+            }
+
+            if (mu == INFINITY) return new Route(INFINITY, null, settled);
+            int[] head = forwardPath(source, meetFrom);
+            int length = head.length;
+            for (int v = meetTo; v != NONE; v = successor[v]) {
+                length++;
+            }
+            int[] path = Arrays.copyOf(head, length);
+            for (int v = meetTo, i = head.length; i < length; v = successor[v], i++) {
+                path[i] = v;
+            }
+            return new Route(mu, path, settled);
+        } finally {
+            reset();
+        }
+    }
+
+    private static double weight(double[] weights, int col) {
+        double w = weights[col];
+        if (w < 0) throw new UnsupportedOperationException("Dijkstra non ammette pesi negativi");
+        return w;
+    }
+
+    /** Nuova distanza di vertex in una direzione, con il vertice da cui ci si arriva e la priorita' in coda */
+    private void update(int vertex, boolean fromSource, double distance, int via, double priority) {
+        IndexedBinaryHeap queue = fromSource ? forwardQueue : backwardQueue;
+        reach(vertex, fromSource, distance);
+        if (fromSource) {
+            predecessor[vertex] = via;
+        } else {
+            successor[vertex] = via;
+        }
+        if (queue.contains(vertex)) {
+            queue.decreaseKey(vertex, priority);
+        } else {
+            queue.insert(vertex, priority);
+        }
+    }
+
+    private void reach(int vertex, boolean fromSource, double distance) {
+        if (forward[vertex] == INFINITY && backward[vertex] == INFINITY) {
+            touched[touchedCount++] = vertex;
+        }
+        if (fromSource) {
+            forward[vertex] = distance;
+        } else {
+            backward[vertex] = distance;
+        }
+    }
+
+    private int[] forwardPath(int source, int target) {
+        if (forward[target] == INFINITY) return null;
+
+        int length = 1;
+        for (int v = target; v != source; v = predecessor[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; i >= 0; v = predecessor[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    private void reset() {
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            forward[v] = backward[v] = INFINITY;
+            predecessor[v] = successor[v] = NONE;
+        }
+        touchedCount = 0;
+        settled = 0;
+        forwardQueue.clear();
+        backwardQueue.clear();
+    }
+}
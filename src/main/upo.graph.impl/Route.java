@@ -0,0 +1,34 @@
+/**
+ * Risposta a una ricerca da un vertice a un altro: lunghezza del cammino minimo, i suoi vertici
+ * e quanti vertici la ricerca ha dovuto estrarre dalla coda prima di fermarsi.
+ */
+public class Route {
+    private final double distance;
+    private final int[] path;
+    private final int settled;
+
+    Route(double distance, int[] path, int settled) {
+        this.distance = distance;
+        this.path = path;
+        this.settled = settled;
+    }
+
+    /** INFINITY se il target non e' raggiungibile */
+    public double distance() {
+        return distance;
+    }
+
+    /** Vertici dalla sorgente al target compresi, null se il target non e' raggiungibile */
+    public int[] path() {
+        return path;
+    }
+
+    public boolean exists() {
+        return path != null;
+    }
+
+    /** Vertici estratti dalla coda (in tutte e due le direzioni per la ricerca bidirezionale) */
+    public int settled() {
+        return settled;
+    }
+}
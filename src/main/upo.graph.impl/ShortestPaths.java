@@ -0,0 +1,87 @@
+import java.util.Arrays;
+
+/**
+ * Risultato di un cammino minimo da una sorgente su array primitivi: distanza e predecessore
+ * di ogni vertice. I vertici non raggiungibili hanno distanza INFINITY e predecessore NONE.
+ * Se dalla sorgente si raggiunge un ciclo negativo il risultato lo riporta e le distanze vanno ignorate.
+ */
+public class ShortestPaths {
+    public static final double INFINITY = Double.POSITIVE_INFINITY;
+    public static final int NONE = -1;
+
+    private final int source;
+    private final double[] distance;
+    private final int[] predecessor;
+    private int[] negativeCycle;
+
+    ShortestPaths(int source, double[] distance, int[] predecessor) {
+        this.source = source;
+        this.distance = distance;
+        this.predecessor = predecessor;
+    }
+
+    /** Array di distanze e predecessori tutti a INFINITY/NONE, tranne la sorgente a distanza 0 */
+    static ShortestPaths start(int vertices, int source) {
+        double[] distance = new double[vertices];
+        int[] predecessor = new int[vertices];
+        Arrays.fill(distance, INFINITY);
+        Arrays.fill(predecessor, NONE);
+        distance[source] = 0;
+        return new ShortestPaths(source, distance, predecessor);
+    }
+
+    /** Registra un ciclo negativo raggiungibile dalla sorgente: le distanze non sono piu' definite */
+    void setNegativeCycle(int[] cycle) {
+        this.negativeCycle = cycle;
+    }
+
+    public boolean hasNegativeCycle() {
+        return negativeCycle != null;
+    }
+
+    /** Vertici di un ciclo di peso negativo nell'ordine degli archi, null se non ce ne sono */
+    public int[] negativeCycle() {
+        return negativeCycle;
+    }
+
+    public int source() {
+        return source;
+    }
+
+    public double distance(int vertex) {
+        return distance[vertex];
+    }
+
+    public int predecessor(int vertex) {
+        return predecessor[vertex];
+    }
+
+    public boolean hasPath(int vertex) {
+        return distance[vertex] != INFINITY;
+    }
+
+    /** Distanze indicizzate per vertice, senza copia */
+    public double[] distances() {
+        return distance;
+    }
+
+    /** Predecessori indicizzati per vertice, senza copia */
+    public int[] predecessors() {
+        return predecessor;
+    }
+
+    /** Vertici del cammino dalla sorgente a target compresi, null se target non e' raggiungibile */
+    public int[] path(int target) {
+        if (!hasPath(target)) return null;
+
+        int length = 1;
+        for (int v = target; v != source; v = predecessor[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; i >= 0; v = predecessor[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+}
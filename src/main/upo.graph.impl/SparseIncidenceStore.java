@@ -0,0 +1,249 @@
+import java.util.Arrays;
+
+/**
+ * Matrice di incidenza sparsa: per ogni colonna si tengono solo le due celle non NONE
+ * (sorgente e destinazione), gli archi uscenti ed entranti di ogni vertice sono in formato CSR.
+ * Vertici e archi aggiunti dopo l'ultima costruzione degli indici finiscono in un delta: liste
+ * concatenate per vertice che i cursori scorrono dopo il tratto CSR, quindi alternare addEdge
+ * e letture costa O(1) per modifica. Gli indici si ricostruiscono in O(V+E) solo quando il delta
+ * supera la parte CSR, dopo una rimozione (che sposta colonne e vertici) o con {@link #compact()}.
+ * <p>
+ * I cursori sono posizioni in outEdges/inEdges per il tratto CSR (minori di csrEdges) e colonne
+ * per il delta (le colonne del delta sono tutte maggiori o uguali a csrEdges).
+ */
+public class SparseIncidenceStore implements IncidenceStore {
+    /** Archi che il delta puo' contenere anche quando la parte CSR e' piu' piccola */
+    private static final int MIN_DELTA = 64;
+
+    private int numberOfVertices;
+    private int numberOfEdge;
+    private int[] source;
+    private int[] target;
+
+    /** false se gli indici vanno ricostruiti da capo prima di usare un cursore */
+    private boolean indexed;
+    /** Vertici e archi coperti dalla parte CSR */
+    private int csrVertices;
+    private int csrEdges;
+    private int[] outOffset;
+    private int[] outEdges;
+    private int[] inOffset;
+    private int[] inEdges;
+    /** Prima e ultima colonna del delta di ogni vertice, -1 se non ce ne sono; link[col] e' la successiva */
+    private int[] outHead;
+    private int[] outTail;
+    private int[] outLink;
+    private int[] inHead;
+    private int[] inTail;
+    private int[] inLink;
+
+    public SparseIncidenceStore() {
+        this.numberOfVertices = 0;
+        this.numberOfEdge = 0;
+        this.source = new int[16];
+        this.target = new int[16];
+        this.indexed = false;
+    }
+
+    /** Memorizzazione gia' riempita: gli array (lunghi esattamente edges) diventano di proprieta' dello store */
+    SparseIncidenceStore(int vertices, int[] source, int[] target) {
+        this.numberOfVertices = vertices;
+        this.numberOfEdge = source.length;
+        this.source = source;
+        this.target = target;
+        this.indexed = false;
+        compact();
+    }
+
+    @Override
+    public int vertexCount() {
+        return numberOfVertices;
+    }
+
+    @Override
+    public int edgeCount() {
+        return numberOfEdge;
+    }
+
+    @Override
+    public int addVertex() {
+        numberOfVertices++;
+        if (indexed && numberOfVertices > outHead.length) {
+            int length = Math.max(16, numberOfVertices * 2);
+            outHead = grow(outHead, length);
+            outTail = grow(outTail, length);
+            inHead = grow(inHead, length);
+            inTail = grow(inTail, length);
+        }
+
+        return numberOfVertices - 1;
+    }
+
+    @Override
+    public void removeVertex(int vertex) {
+        for (int i = 0; i < numberOfEdge; i++) {
+            if (source[i] > vertex) source[i]--;
+            if (target[i] > vertex) target[i]--;
+        }
+        numberOfVertices--;
+        indexed = false;
+    }
+
+    @Override
+    public int addEdge(int source, int target) {
+        if (numberOfEdge == this.source.length) {
+            this.source = Arrays.copyOf(this.source, Math.max(16, numberOfEdge * 2));
+            this.target = Arrays.copyOf(this.target, Math.max(16, numberOfEdge * 2));
+        }
+        this.source[numberOfEdge] = source;
+        this.target[numberOfEdge] = target;
+        numberOfEdge++;
+        if (indexed) {
+            if (numberOfEdge - csrEdges > Math.max(MIN_DELTA, csrEdges)) {
+                indexed = false;
+            } else {
+                link(numberOfEdge - 1);
+            }
+        }
+
+        return numberOfEdge - 1;
+    }
+
+    @Override
+    public int removeEdge(int column) {
+        int last = numberOfEdge - 1;
+        source[column] = source[last];
+        target[column] = target[last];
+        numberOfEdge--;
+        indexed = false;
+
+        return last != column ? last : -1;
+    }
+
+    @Override
+    public Incidence getIncidence(int vertex, int column) {
+        if (source[column] == vertex) return Incidence.SOURCE;
+        if (target[column] == vertex) return Incidence.TARGET;
+        return Incidence.NONE;
+    }
+
+    @Override
+    public int getSource(int column) {
+        return source[column];
+    }
+
+    @Override
+    public int getTarget(int column) {
+        return target[column];
+    }
+
+    @Override
+    public int firstOut(int vertex) {
+        index();
+        if (vertex < csrVertices && outOffset[vertex] < outOffset[vertex + 1]) return outOffset[vertex];
+        return outHead[vertex];
+    }
+
+    @Override
+    public int nextOut(int vertex, int cursor) {
+        index();
+        if (cursor >= csrEdges) return outLink[cursor];
+        return cursor + 1 < outOffset[vertex + 1] ? cursor + 1 : outHead[vertex];
+    }
+
+    @Override
+    public int outColumn(int cursor) {
+        return cursor < csrEdges ? outEdges[cursor] : cursor;
+    }
+
+    @Override
+    public int firstIn(int vertex) {
+        index();
+        if (vertex < csrVertices && inOffset[vertex] < inOffset[vertex + 1]) return inOffset[vertex];
+        return inHead[vertex];
+    }
+
+    @Override
+    public int nextIn(int vertex, int cursor) {
+        index();
+        if (cursor >= csrEdges) return inLink[cursor];
+        return cursor + 1 < inOffset[vertex + 1] ? cursor + 1 : inHead[vertex];
+    }
+
+    @Override
+    public int inColumn(int cursor) {
+        return cursor < csrEdges ? inEdges[cursor] : cursor;
+    }
+
+    /** Ricostruisce gli indici solo se una rimozione o un delta troppo grande li ha invalidati */
+    private void index() {
+        if (!indexed) rebuild();
+    }
+
+    /**
+     * Porta tutti gli archi nella parte CSR, svuotando il delta. Dopo questa chiamata, finche'
+     * il grafo non cambia, le letture si possono fare da piu' thread.
+     */
+    @Override
+    public void compact() {
+        if (!indexed || csrVertices != numberOfVertices || csrEdges != numberOfEdge) rebuild();
+    }
+
+    /** Ricostruisce gli offset CSR/CSC con un counting sort sulle colonne, O(V+E) */
+    private void rebuild() {
+        outOffset = new int[numberOfVertices + 1];
+        inOffset = new int[numberOfVertices + 1];
+        for (int i = 0; i < numberOfEdge; i++) {
+            outOffset[source[i] + 1]++;
+            inOffset[target[i] + 1]++;
+        }
+        for (int v = 0; v < numberOfVertices; v++) {
+            outOffset[v + 1] += outOffset[v];
+            inOffset[v + 1] += inOffset[v];
+        }
+
+        outEdges = new int[numberOfEdge];
+        inEdges = new int[numberOfEdge];
+        int[] outFill = Arrays.copyOf(outOffset, numberOfVertices);
+        int[] inFill = Arrays.copyOf(inOffset, numberOfVertices);
+        for (int i = 0; i < numberOfEdge; i++) {
+            outEdges[outFill[source[i]]++] = i;
+            inEdges[inFill[target[i]]++] = i;
+        }
+
+        csrVertices = numberOfVertices;
+        csrEdges = numberOfEdge;
+        int vertices = Math.max(16, numberOfVertices);
+        outHead = grow(null, vertices);
+        outTail = grow(null, vertices);
+        inHead = grow(null, vertices);
+        inTail = grow(null, vertices);
+        outLink = new int[source.length];
+        inLink = new int[source.length];
+        indexed = true;
+    }
+
+    /** Aggiunge la colonna in fondo alle liste del delta della sua sorgente e della sua destinazione */
+    private void link(int col) {
+        if (col >= outLink.length) {
+            outLink = Arrays.copyOf(outLink, source.length);
+            inLink = Arrays.copyOf(inLink, source.length);
+        }
+        outLink[col] = -1;
+        inLink[col] = -1;
+        int s = source[col];
+        int t = target[col];
+        if (outTail[s] == -1) outHead[s] = col; else outLink[outTail[s]] = col;
+        outTail[s] = col;
+        if (inTail[t] == -1) inHead[t] = col; else inLink[inTail[t]] = col;
+        inTail[t] = col;
+    }
+
+    /** Copia di array lunga length con le nuove celle a -1 */
+    private static int[] grow(int[] array, int length) {
+        int old = array == null ? 0 : array.length;
+        int[] result = array == null ? new int[length] : Arrays.copyOf(array, length);
+        Arrays.fill(result, old, length, -1);
+        return result;
+    }
+}
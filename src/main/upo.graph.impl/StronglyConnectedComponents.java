@@ -0,0 +1,243 @@
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Componenti fortemente connesse calcolate con l'algoritmo di Pearce (variante di Tarjan
+ * che usa un solo array rindex al posto di index/lowlink) in una sola visita iterativa O(V+E)
+ * della memorizzazione, senza costruire il grafo trasposto. Come in {@link TopologicalSort}
+ * il limite vale con {@link SparseIncidenceStore}; sulle matrici dense la visita costa O(V * E).
+ * Il risultato e' l'id di componente di ogni vertice; {@link #asSets()} ne da' una vista
+ * come Set&lt;Set&lt;Integer&gt;&gt; che raggruppa i vertici solo quando viene usata.
+ */
+public class StronglyConnectedComponents {
+    private final int[] component;
+    private final int count;
+    private int[] offset;
+    private int[] members;
+
+    private StronglyConnectedComponents(int[] component, int count) {
+        this.component = component;
+        this.count = count;
+    }
+
+    public static StronglyConnectedComponents compute(IncidenceStore matrix) {
+        int n = matrix.vertexCount();
+        int[] rindex = new int[n];
+        boolean[] root = new boolean[n];
+        int[] cursor = new int[n];
+        int[] callStack = new int[n];
+        int[] stack = new int[n];
+        int top = 0;
+        int index = 1;
+        int c = n - 1;
+
+        for (int start = 0; start < n; start++) {
+            if (rindex[start] != 0) continue;
+
+            int depth = 0;
+            callStack[depth++] = start;
+            rindex[start] = index++;
+            root[start] = true;
+            cursor[start] = matrix.firstOut(start);
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                int cur = cursor[v];
+                if (cur != -1) {
+                    cursor[v] = matrix.nextOut(v, cur);
+                    int w = matrix.getTarget(matrix.outColumn(cur));
+                    if (rindex[w] == 0) {
+                        callStack[depth++] = w;
+                        rindex[w] = index++;
+                        root[w] = true;
+                        cursor[w] = matrix.firstOut(w);
+                    } else if (rindex[w] < rindex[v]) {
+                        rindex[v] = rindex[w];
+                        root[v] = false;
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (root[v]) {
+                    index--;
+                    while (top > 0 && rindex[v] <= rindex[stack[top - 1]]) {
+                        rindex[stack[--top]] = c;
+                        index--;
+                    }
+                    rindex[v] = c;
+                    c--;
+                } else {
+                    stack[top++] = v;
+                }
+
+                if (depth > 0) {
+                    int u = callStack[depth - 1];
+                    if (rindex[v] < rindex[u]) {
+                        rindex[u] = rindex[v];
+                        root[u] = false;
+                    }
+                }
+            }
+        }
+
+        // le componenti hanno ricevuto c = n-1, n-2, ...: si rinumerano da 0 nell'ordine in cui sono state chiuse
+        for (int v = 0; v < n; v++) {
+            rindex[v] = n - 1 - rindex[v];
+        }
+        return new StronglyConnectedComponents(rindex, n - 1 - c);
+    }
+
+    /**
+     * Risultato a partire da una partizione gia' calcolata (ad esempio in parallelo), con gli id
+     * rinumerati in ordine topologico inverso come in {@link #compute}: Kahn sul grafo delle componenti.
+     */
+    static StronglyConnectedComponents fromPartition(IncidenceStore matrix, int[] component, int count) {
+        int[] inDegree = new int[count];
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            int from = component[matrix.getSource(i)];
+            int to = component[matrix.getTarget(i)];
+            if (from != to) inDegree[to]++;
+        }
+
+        int[] members = new int[component.length];
+        int[] offset = new int[count + 1];
+        for (int id : component) {
+            offset[id + 1]++;
+        }
+        for (int i = 0; i < count; i++) {
+            offset[i + 1] += offset[i];
+        }
+        int[] fill = new int[count];
+        System.arraycopy(offset, 0, fill, 0, count);
+        for (int v = 0; v < component.length; v++) {
+            members[fill[component[v]]++] = v;
+        }
+
+        int[] order = new int[count];
+        int head = 0;
+        int tail = 0;
+        for (int id = 0; id < count; id++) {
+            if (inDegree[id] == 0) order[tail++] = id;
+        }
+        while (head < tail) {
+            int id = order[head++];
+            for (int m = offset[id]; m < offset[id + 1]; m++) {
+                int v = members[m];
+                for (int c = matrix.firstOut(v); c != -1; c = matrix.nextOut(v, c)) {
+                    int to = component[matrix.getTarget(matrix.outColumn(c))];
+                    if (to != id && --inDegree[to] == 0) order[tail++] = to;
+                }
+            }
+        }
+
+        int[] renamed = new int[count];
+        for (int i = 0; i < count; i++) {
+            renamed[order[i]] = count - 1 - i;
+        }
+        int[] result = new int[component.length];
+        for (int v = 0; v < component.length; v++) {
+            result[v] = renamed[component[v]];
+        }
+        return new StronglyConnectedComponents(result, count);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /** Id della componente del vertice, tra 0 e count() - 1; le componenti sono in ordine topologico inverso */
+    public int component(int vertex) {
+        return component[vertex];
+    }
+
+    public int[] componentIds() {
+        return component;
+    }
+
+    /** Vertici raggruppati per componente con un counting sort, calcolati al primo uso */
+    private void group() {
+        if (members != null) return;
+
+        offset = new int[count + 1];
+        for (int id : component) {
+            offset[id + 1]++;
+        }
+        for (int i = 0; i < count; i++) {
+            offset[i + 1] += offset[i];
+        }
+        int[] fill = new int[count];
+        System.arraycopy(offset, 0, fill, 0, count);
+        members = new int[component.length];
+        for (int v = 0; v < component.length; v++) {
+            members[fill[component[v]]++] = v;
+        }
+    }
+
+    public Set<Set<Integer>> asSets() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Set<Integer>> iterator() {
+                group();
+                return new Iterator<>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < count;
+                    }
+
+                    @Override
+                    public Set<Integer> next() {
+                        if (next >= count) throw new NoSuchElementException();
+                        return new Component(next++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /** Vista di una componente sulla porzione di members che le appartiene */
+    private class Component extends AbstractSet<Integer> {
+        private final int id;
+
+        Component(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer v && v >= 0 && v < component.length && component[v] == id;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<>() {
+                private int next = offset[id];
+
+                @Override
+                public boolean hasNext() {
+                    return next < offset[id + 1];
+                }
+
+                @Override
+                public Integer next() {
+                    if (next >= offset[id + 1]) throw new NoSuchElementException();
+                    return members[next++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return offset[id + 1] - offset[id];
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Ordinamento topologico di Kahn in O(V+E) su una {@link IncidenceStore}: si contano
+ * i gradi entranti una volta sola e si estraggono i vertici che arrivano a grado zero.
+ * Se alla fine restano vertici non estratti il grafo ha un ciclo, senza bisogno di isCyclic.
+ * Il limite vale con i cursori di {@link SparseIncidenceStore}: sulle matrici dense ogni cursore
+ * scorre una riga intera e la visita costa O(V * E).
+ */
+public class TopologicalSort {
+    private TopologicalSort() {
+    }
+
+    /**
+     * Restituisce i vertici in ordine topologico, null se il grafo ha un ciclo.
+     * Con smallestFirst tra i vertici disponibili si prende sempre quello con indice minore
+     * (heap binario, O((V+E) log V)), altrimenti l'array del risultato fa anche da coda FIFO.
+     */
+    public static int[] sort(IncidenceStore matrix, boolean smallestFirst) {
+        int n = matrix.vertexCount();
+        int[] inDegree = new int[n];
+        for (int i = 0; i < matrix.edgeCount(); i++) {
+            inDegree[matrix.getTarget(i)]++;
+        }
+
+        int[] order = new int[n];
+        int head = 0;
+        int tail = 0;
+        int[] heap = smallestFirst ? new int[n] : null;
+        int heapSize = 0;
+
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                if (smallestFirst) {
+                    heap[heapSize++] = v; // gia' in ordine crescente, quindi un heap valido
+                } else {
+                    order[tail++] = v;
+                }
+            }
+        }
+
+        while (smallestFirst ? heapSize > 0 : head < tail) {
+            int vertex;
+            if (smallestFirst) {
+                vertex = heap[0];
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize);
+                order[tail++] = vertex;
+            } else {
+                vertex = order[head];
+            }
+            head++;
+
+            for (int c = matrix.firstOut(vertex); c != -1; c = matrix.nextOut(vertex, c)) {
+                int adjacent = matrix.getTarget(matrix.outColumn(c));
+                if (--inDegree[adjacent] == 0) {
+                    if (smallestFirst) {
+                        heap[heapSize] = adjacent;
+                        siftUp(heap, heapSize++);
+                    } else {
+                        order[tail++] = adjacent;
+                    }
+                }
+            }
+        }
+
+        return head == n ? order : null;
+    }
+
+    private static void siftUp(int[] heap, int i) {
+        int value = heap[i];
+        while (i > 0 && heap[(i - 1) >> 1] > value) {
+            heap[i] = heap[(i - 1) >> 1];
+            i = (i - 1) >> 1;
+        }
+        heap[i] = value;
+    }
+
+    private static void siftDown(int[] heap, int size) {
+        if (size == 0) return;
+        int value = heap[0];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (heap[child] >= value) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.Arrays;
+
+/**
+ * Insiemi disgiunti su int[] con unione per rango e compressione dei cammini.
+ * Gli elementi si possono aggiungere in fondo, quindi la struttura segue un grafo a cui
+ * si aggiungono vertici e archi senza ricalcolare le componenti da capo.
+ */
+public class UnionFind implements DisjointSets {
+    private int[] parent;
+    private byte[] rank;
+    private int size;
+    private int count;
+
+    public UnionFind() {
+        this(0);
+    }
+
+    /** Crea n insiemi singoletto {0}, ..., {n - 1} */
+    public UnionFind(int n) {
+        parent = new int[Math.max(16, n)];
+        rank = new byte[parent.length];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        size = n;
+        count = n;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    /** Aggiunge un nuovo elemento in un insieme a se' e ne restituisce l'indice */
+    public int add() {
+        if (size == parent.length) {
+            parent = Arrays.copyOf(parent, size * 2);
+            rank = Arrays.copyOf(rank, size * 2);
+        }
+        parent[size] = size;
+        rank[size] = 0;
+        count++;
+        return size++;
+    }
+
+    /** Rappresentante dell'insieme di x; tutti i vertici del cammino vengono appesi alla radice */
+    @Override
+    public int find(int x) {
+        if (x < 0 || x >= size) throw new IndexOutOfBoundsException(x);
+
+        int root = x;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    /** Unisce gli insiemi di a e b, restituisce false se erano gia' lo stesso insieme */
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) return false;
+
+        if (rank[rootA] < rank[rootB]) {
+            parent[rootA] = rootB;
+        } else if (rank[rootA] > rank[rootB]) {
+            parent[rootB] = rootA;
+        } else {
+            parent[rootB] = rootA;
+            rank[rootA]++;
+        }
+        count--;
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+import upo.graph.base.Graph;
+import upo.graph.base.VisitResult;
+
+import java.util.Arrays;
+
+/**
+ * Stato di una visita su array primitivi, usato internamente al posto di {@link VisitResult}
+ * (che tiene cinque HashMap). Si converte in VisitResult solo alla fine con {@link #toVisitResult(Graph)}
+ * e puo' essere riusato per piu' visite con {@link #reset(int)}.
+ */
+public final class VisitState {
+    public static final byte WHITE = 0;
+    public static final byte GRAY = 1;
+    public static final byte BLACK = 2;
+    public static final int NONE = -1;
+
+    private static final VisitResult.Color[] COLORS = {VisitResult.Color.WHITE, VisitResult.Color.GRAY, VisitResult.Color.BLACK};
+
+    private int size;
+    private byte[] color;
+    private int[] parent;
+    private double[] distance;
+    private int[] startTime;
+    private int[] endTime;
+
+    public VisitState(int size) {
+        this.color = new byte[0];
+        reset(size);
+    }
+
+    /** Riporta tutti i vertici a WHITE, senza genitore, distanza e tempi; rialloca solo se il grafo e' cresciuto */
+    public void reset(int size) {
+        if (size > color.length) {
+            color = new byte[size];
+            parent = new int[size];
+            distance = new double[size];
+            startTime = new int[size];
+            endTime = new int[size];
+        }
+        this.size = size;
+        Arrays.fill(color, 0, size, WHITE);
+        Arrays.fill(parent, 0, size, NONE);
+        Arrays.fill(distance, 0, size, Double.POSITIVE_INFINITY);
+        Arrays.fill(startTime, 0, size, NONE);
+        Arrays.fill(endTime, 0, size, NONE);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte getColor(int vertex) {
+        return color[vertex];
+    }
+
+    public void setColor(int vertex, byte value) {
+        color[vertex] = value;
+    }
+
+    public int getParent(int vertex) {
+        return parent[vertex];
+    }
+
+    public void setParent(int vertex, int value) {
+        parent[vertex] = value;
+    }
+
+    public double getDistance(int vertex) {
+        return distance[vertex];
+    }
+
+    public void setDistance(int vertex, double value) {
+        distance[vertex] = value;
+    }
+
+    public int getStartTime(int vertex) {
+        return startTime[vertex];
+    }
+
+    public void setStartTime(int vertex, int value) {
+        startTime[vertex] = value;
+    }
+
+    public int getEndTime(int vertex) {
+        return endTime[vertex];
+    }
+
+    public void setEndTime(int vertex, int value) {
+        endTime[vertex] = value;
+    }
+
+    /** Copia nel VisitResult solo i valori effettivamente assegnati durante la visita */
+    public VisitResult toVisitResult(Graph graph) {
+        VisitResult result = new VisitResult(graph);
+        for (int v = 0; v < size; v++) {
+            if (color[v] != WHITE) result.setColor(v, COLORS[color[v]]);
+            if (parent[v] != NONE) result.setParent(v, parent[v]);
+            if (distance[v] != Double.POSITIVE_INFINITY) result.setDistance(v, distance[v]);
+            if (startTime[v] != NONE) result.setStartTime(v, startTime[v]);
+            if (endTime[v] != NONE) result.setEndTime(v, endTime[v]);
+        }
+        return result;
+    }
+}
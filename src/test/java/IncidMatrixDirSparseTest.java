@@ -0,0 +1,10 @@
+import org.junit.jupiter.api.BeforeEach;
+
+/** Stessi test di {@link IncidMatrixDirTest} sulla memorizzazione sparsa */
+class IncidMatrixDirSparseTest extends IncidMatrixDirTest {
+    @BeforeEach
+    @Override
+    void init() {
+        matrix = new IncidMatrixDir(new SparseIncidenceStore());
+    }
+}
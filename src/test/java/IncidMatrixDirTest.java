@@ -3,7 +3,20 @@ import org.junit.jupiter.api.Test;
 import upo.graph.base.Edge;
 import upo.graph.base.VisitResult;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 class IncidMatrixDirTest {
@@ -28,6 +41,16 @@ class IncidMatrixDirTest {
         matrix.addEdge(edgeAD);
     }
 
+    /** n vertici e edges archi casuali */
+    private static IncidMatrixDir randomGraph(int n, int edges, long seed) {
+        Random random = new Random(seed);
+        GraphBuilder builder = new GraphBuilder(n);
+        for (int i = 0; i < edges; i++) {
+            builder.addEdge(random.nextInt(n), random.nextInt(n));
+        }
+        return builder.buildGraph();
+    }
+
     private void loadDataGraph() {
         Edge edgeAB = Edge.getEdgeByVertexes(0, 1);
         Edge edgeCA = Edge.getEdgeByVertexes(0, 2);
@@ -97,6 +120,18 @@ class IncidMatrixDirTest {
         assertEquals(Set.of(0, 1, 2), matrix.getVertices());
     }
 
+    @Test
+    void removeVertexWithEdges() {
+        loadDataCyclicGraph();
+
+        matrix.removeVertex(1);
+
+        assertEquals(3, matrix.getEdges().size());
+        assertTrue(matrix.containsEdge(Edge.getEdgeByVertexes(1, 0)));
+        assertTrue(matrix.containsEdge(Edge.getEdgeByVertexes(1, 2)));
+        assertTrue(matrix.containsEdge(Edge.getEdgeByVertexes(0, 2)));
+    }
+
     @Test
     void addEdge() {
         loadDataCyclicGraph();
@@ -124,6 +159,22 @@ class IncidMatrixDirTest {
         assertFalse(matrix.containsEdge(edgeCD));
     }
 
+    @Test
+    void edgeKey() {
+        long edgeBA = EdgeKey.pack(1, 0);
+        matrix.addVertex();
+        matrix.addVertex();
+
+        matrix.addEdge(edgeBA);
+
+        assertEquals(1, EdgeKey.source(edgeBA));
+        assertEquals(0, EdgeKey.target(edgeBA));
+        assertTrue(matrix.containsEdge(edgeBA));
+        assertTrue(matrix.containsEdge(Edge.getEdgeByVertexes(1, 0)));
+        assertSame(EdgeKey.toEdge(edgeBA), EdgeKey.toEdge(EdgeKey.pack(1, 0)));
+        assertThrows(IllegalArgumentException.class, () -> matrix.addEdge(EdgeKey.pack(-1, 0)));
+    }
+
     @Test
     void removeEdge() {
         Edge edgeAB = Edge.getEdgeByVertexes(0, 1);
@@ -198,6 +249,20 @@ class IncidMatrixDirTest {
         }
     }
 
+    @Test
+    void getBFSTreeDirectionOptimizing() {
+        loadDataCyclicGraph();
+        VisitResult topDown = matrix.getBFSTree(1);
+        VisitResult directionOptimizing = matrix.getBFSTree(1, true);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(VisitResult.Color.BLACK, directionOptimizing.getColor(i));
+            assertEquals(topDown.getDistance(i), directionOptimizing.getDistance(i));
+        }
+        assertEquals(2D, directionOptimizing.getDistance(0));
+        assertEquals(2D, directionOptimizing.getDistance(3));
+    }
+
     @Test
     void getDFSTree() {
         loadDataCyclicGraph();
@@ -242,6 +307,22 @@ class IncidMatrixDirTest {
         assertEquals(4, forestaVisita.getPartent(5));
     }
 
+    @Test
+    void deepPathDoesNotOverflow() {
+        int n = 100_000;
+        GraphBuilder builder = new GraphBuilder(n);
+        for (int i = 0; i + 1 < n; i++) {
+            builder.addEdge(i, i + 1);
+        }
+        IncidMatrixDir path = builder.buildGraph();
+
+        assertFalse(path.isCyclic());
+        VisitResult visit = path.getDFSTree(0);
+        assertEquals(n, visit.getStartTime(n - 1));
+        assertEquals(2 * n, visit.getEndTime(0));
+        assertEquals(n, path.stronglyConnectedComponents().size());
+    }
+
     @Test
     void topologicalSort() {
         loadDataGraph();
@@ -252,6 +333,22 @@ class IncidMatrixDirTest {
         assertArrayEquals(expectedResult, result);
     }
 
+    @Test
+    void topologicalSortSmallestFirst() {
+        matrix.addVertex();
+        matrix.addVertex();
+        matrix.addVertex();
+        matrix.addVertex();
+        matrix.addEdge(Edge.getEdgeByVertexes(3, 1));
+        matrix.addEdge(Edge.getEdgeByVertexes(2, 0));
+
+        assertArrayEquals(new Integer[]{2, 0, 3, 1}, matrix.topologicalSort(true));
+        assertArrayEquals(new Integer[]{2, 3, 0, 1}, matrix.topologicalSort(false));
+
+        matrix.addEdge(Edge.getEdgeByVertexes(1, 3));
+        assertThrows(UnsupportedOperationException.class, () -> matrix.topologicalSort());
+    }
+
     @Test
     void stronglyConnectedComponents() {
         loadDataCyclicGraph();
@@ -260,4 +357,182 @@ class IncidMatrixDirTest {
 
         assertEquals(Set.of(Set.of(0, 1, 2), Set.of(3)), result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void stronglyConnectedComponentIds() {
+        loadDataCyclicGraph();
+
+        StronglyConnectedComponents result = matrix.getStronglyConnectedComponents();
+
+        assertEquals(2, result.count());
+        assertEquals(result.component(0), result.component(1));
+        assertEquals(result.component(0), result.component(2));
+        assertNotEquals(result.component(0), result.component(3));
+        // ordine topologico inverso: la componente di {3} si chiude per prima
+        assertEquals(0, result.component(3));
+    }
+
+    @Test
+    void parallelStronglyConnectedComponents() {
+        // abbastanza vertici da non finire subito nel caso sequenziale
+        int n = 50_000;
+        IncidMatrixDir graph = randomGraph(n, 2 * n, 42);
+
+        StronglyConnectedComponents sequential = graph.getStronglyConnectedComponents();
+        StronglyConnectedComponents parallel = graph.getStronglyConnectedComponents(ForkJoinPool.commonPool());
+
+        assertEquals(sequential.count(), parallel.count());
+        int[] mapping = new int[sequential.count()];
+        Arrays.fill(mapping, -1);
+        for (int v = 0; v < n; v++) {
+            int id = sequential.component(v);
+            if (mapping[id] == -1) mapping[id] = parallel.component(v);
+            assertEquals(mapping[id], parallel.component(v));
+        }
+        assertEquals(sequential.asSets(), parallel.asSets());
+    }
+
+    @Test
+    void connectedComponents() {
+        loadDataGraph();
+        matrix.addVertex();
+
+        assertEquals(Set.of(Set.of(0, 1, 2, 3), Set.of(4)), matrix.connectedComponents());
+    }
+
+    @Test
+    void connectedComponentsIncremental() {
+        loadDataGraph();
+        DisjointSets components = matrix.getConnectedComponents();
+        assertEquals(1, components.count());
+
+        int vertex = matrix.addVertex();
+        assertSame(components, matrix.getConnectedComponents());
+        assertEquals(2, components.count());
+        matrix.addEdge(Edge.getEdgeByVertexes(vertex, 0));
+        assertEquals(1, components.count());
+
+        matrix.removeEdge(Edge.getEdgeByVertexes(vertex, 0));
+        assertThrows(ConcurrentModificationException.class, components::count);
+        assertEquals(Set.of(Set.of(0, 1, 2, 3), Set.of(4)), matrix.connectedComponents());
+    }
+
+    @Test
+    void parallelConnectedComponents() {
+        int n = 100_000;
+        IncidMatrixDir graph = randomGraph(n, n / 2, 7);
+
+        int[] sequential = graph.getConnectedComponents().componentIds();
+        ConcurrentUnionFind parallel = graph.getConnectedComponents(4);
+
+        assertEquals(graph.getConnectedComponents().count(), parallel.count());
+        assertArrayEquals(sequential, parallel.componentIds());
+        assertThrows(IllegalArgumentException.class, () -> graph.getConnectedComponents(0));
+    }
+
+    @Test
+    void writeAndMapGraph() throws IOException {
+        loadDataCyclicGraph();
+
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            matrix.writeTo(file);
+            MappedGraph mapped = MappedGraph.open(file);
+            try {
+                assertTrue(mapped.checksumMatches());
+                assertFalse(mapped.isWeighted());
+                for (int v = 0; v < matrix.size(); v++) {
+                    assertEquals(matrix.getAdjacent(v), mapped.getAdjacent(v));
+                }
+                assertTrue(mapped.containsEdge(Edge.getEdgeByVertexes(2, 3)));
+                assertThrows(UnsupportedOperationException.class, () -> mapped.getEdgeWeight(EdgeKey.pack(2, 3)));
+                assertEquals(matrix.getEdges(), mapped.toGraph().getEdges());
+                assertThrows(IndexOutOfBoundsException.class, () -> mapped.getAdjacent(0, mapped.outDegree(0)));
+                assertThrows(NoSuchElementException.class, () -> mapped.outDegree(matrix.size()));
+            } finally {
+                mapped.close();
+            }
+
+            // destinazione fuori dai vertici: il file si apre, la copia no
+            byte[] bytes = Files.readAllBytes(file);
+            int targetsAt = 24 + (matrix.size() + 1) * Integer.BYTES;
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(targetsAt, matrix.size());
+            Files.write(file, bytes);
+            MappedGraph corrupted = MappedGraph.open(file);
+            try {
+                assertThrows(IllegalStateException.class, corrupted::toGraph);
+            } finally {
+                corrupted.close();
+            }
+
+            // offset decrescenti
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(24 + Integer.BYTES, Integer.MAX_VALUE);
+            Files.write(file, bytes);
+            assertThrows(IOException.class, () -> MappedGraph.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void sparseStoreCursorsWithDelta() {
+        // aggiunte e letture alternate: i cursori devono vedere anche gli archi nel delta
+        SparseIncidenceStore store = new SparseIncidenceStore();
+        Random random = new Random(47);
+        for (int step = 0; step < 3000; step++) {
+            int op = random.nextInt(20);
+            if (store.vertexCount() < 2 || op == 0) {
+                store.addVertex();
+            } else if (op == 1 && store.edgeCount() > 0) {
+                store.removeEdge(random.nextInt(store.edgeCount()));
+            } else {
+                store.addEdge(random.nextInt(store.vertexCount()), random.nextInt(store.vertexCount()));
+            }
+            if (step % 7 == 0) store.compact();
+
+            int v = random.nextInt(store.vertexCount());
+            Set<Integer> out = new HashSet<>();
+            Set<Integer> in = new HashSet<>();
+            for (int c = store.firstOut(v); c != -1; c = store.nextOut(v, c)) {
+                assertTrue(out.add(store.outColumn(c)));
+            }
+            for (int c = store.firstIn(v); c != -1; c = store.nextIn(v, c)) {
+                assertTrue(in.add(store.inColumn(c)));
+            }
+            for (int col = 0; col < store.edgeCount(); col++) {
+                assertEquals(store.getSource(col) == v, out.contains(col));
+                assertEquals(store.getTarget(col) == v, in.contains(col));
+            }
+        }
+    }
+
+    @Test
+    void edgeIndexMatchesHashMap() {
+        // poche chiavi possibili: collisioni continue, scansioni che fanno il giro della tabella
+        // e cancellazioni che spostano all'indietro; con 600 chiavi vive la tabella cresce fino a 2048
+        Random random = new Random(53);
+        for (int[] run : new int[][]{{8, 6}, {600, 40}}) {
+            int live = run[0];
+            int vertices = run[1];
+            EdgeIndex index = new EdgeIndex();
+            Map<Long, Integer> expected = new HashMap<>();
+            for (int step = 0; step < 20_000; step++) {
+                long key = EdgeKey.pack(random.nextInt(vertices), random.nextInt(vertices));
+                int op = random.nextInt(3);
+                if (op == 0 && (expected.size() < live || expected.containsKey(key))) {
+                    index.put(key, step);
+                    expected.put(key, step);
+                } else if (op == 1) {
+                    index.remove(key);
+                    expected.remove(key);
+                } else {
+                    assertEquals((int) expected.getOrDefault(key, -1), index.get(key));
+                }
+                assertEquals(expected.size(), index.size());
+            }
+            for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+                assertEquals((int) entry.getValue(), index.get(entry.getKey()));
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+import org.junit.jupiter.api.BeforeEach;
+
+/** Stessi test di {@link IncidMatrixDirWeightTest} sulla memorizzazione sparsa */
+class IncidMatrixDirWeightSparseTest extends IncidMatrixDirWeightTest {
+    @BeforeEach
+    @Override
+    void init() {
+        matrix = new IncidMatrixDirWeight(new SparseIncidenceStore());
+    }
+}
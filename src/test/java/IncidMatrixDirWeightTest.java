@@ -2,9 +2,20 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import upo.graph.base.Edge;
 import upo.graph.base.VisitResult;
-
+import upo.graph.base.WeightedGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,6 +47,16 @@ class IncidMatrixDirWeightTest {
         matrix.setEdgeWeight(edgeAD, 1);
     }
 
+    /** n vertici e edgesPerVertex * n archi casuali con pesi interi in [0, maxWeight) */
+    private static IncidMatrixDirWeight randomWeightedGraph(int n, int edgesPerVertex, int maxWeight, long seed) {
+        Random random = new Random(seed);
+        GraphBuilder builder = new GraphBuilder(n);
+        for (int i = 0; i < edgesPerVertex * n; i++) {
+            builder.addEdge(random.nextInt(n), random.nextInt(n), random.nextInt(maxWeight));
+        }
+        return builder.buildWeightedGraph();
+    }
+
     private void loadDataGraph() {
         Edge edgeAB = Edge.getEdgeByVertexes(0, 1);
         Edge edgeCA = Edge.getEdgeByVertexes(0, 2);
@@ -82,6 +103,34 @@ class IncidMatrixDirWeightTest {
         assertEquals(1D, matrix.getEdgeWeight(AB));
     }
 
+    @Test
+    void edgeWeightByKey() {
+        loadDataCyclicGraph();
+        long edgeCD = EdgeKey.pack(2, 3);
+
+        assertEquals(7D, matrix.getEdgeWeight(edgeCD));
+        matrix.setEdgeWeight(edgeCD, 4);
+        assertEquals(4D, matrix.getEdgeWeight(Edge.getEdgeByVertexes(2, 3)));
+    }
+
+    @Test
+    void graphBuilder() {
+        IncidMatrixDirWeight built = new GraphBuilder(4)
+                .addEdges(new int[]{0, 2, 1, 2, 0}, new int[]{1, 0, 2, 3, 3}, new double[]{2, 3, 5, 7, 1})
+                .addEdge(0, 1, 9)
+                .buildWeightedGraph();
+
+        assertEquals(5, built.getEdges().size());
+        assertEquals(2D, built.getEdgeWeight(Edge.getEdgeByVertexes(0, 1)));
+        assertEquals(7D, built.getEdgeWeight(Edge.getEdgeByVertexes(2, 3)));
+        assertEquals(Set.of(1, 3), built.getAdjacent(0));
+
+        IncidMatrixDirWeight dense = new GraphBuilder(2).sparse(false).addEdge(0, 1).buildWeightedGraph();
+        assertEquals(IncidMatrixDirWeight.INFINITY, dense.getEdgeWeight(Edge.getEdgeByVertexes(0, 1)));
+
+        assertThrows(IllegalArgumentException.class, () -> new GraphBuilder(2).addEdge(0, 2).buildGraph());
+    }
+
     @Test
     void addVertex() {
         matrix.addVertex();
@@ -171,6 +220,18 @@ class IncidMatrixDirWeightTest {
         assertEquals(4, result.size());
     }
 
+    @Test
+    void removeEdgeKeepsWeights() {
+        loadDataCyclicGraph();
+
+        matrix.removeEdge(Edge.getEdgeByVertexes(0, 1));
+        matrix.removeVertex(1);
+
+        assertEquals(3D, matrix.getEdgeWeight(Edge.getEdgeByVertexes(1, 0)));
+        assertEquals(7D, matrix.getEdgeWeight(Edge.getEdgeByVertexes(1, 2)));
+        assertEquals(1D, matrix.getEdgeWeight(Edge.getEdgeByVertexes(0, 2)));
+    }
+
     @Test
     void getAdjacent() {
         loadDataCyclicGraph();
@@ -306,4 +367,407 @@ class IncidMatrixDirWeightTest {
 
         assertEquals(Set.of(Set.of(0), Set.of(1), Set.of(2), Set.of(3)), result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void connectedComponents() {
+        loadDataCyclicGraph();
+        matrix.addVertex();
+        matrix.addVertex();
+        matrix.addEdge(Edge.getEdgeByVertexes(5, 4));
+
+        assertEquals(Set.of(Set.of(0, 1, 2, 3), Set.of(4, 5)), matrix.connectedComponents());
+    }
+
+    @Test
+    void getDijkstraShortestPaths() {
+        loadDataCyclicGraph();
+
+        WeightedGraph tree = matrix.getDijkstraShortestPaths(0);
+
+        assertEquals(4, tree.size());
+        assertEquals(Set.of(1, 3), tree.getAdjacent(0));
+        assertEquals(Set.of(2), tree.getAdjacent(1));
+        assertEquals(5D, tree.getEdgeWeight(Edge.getEdgeByVertexes(1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> matrix.getDijkstraShortestPaths(4));
+
+        matrix.setEdgeWeight(Edge.getEdgeByVertexes(0, 1), -1);
+        assertThrows(UnsupportedOperationException.class, () -> matrix.getDijkstraShortestPaths(0));
+    }
+
+    @Test
+    void dijkstraHeapsAgree() {
+        int n = 2_000;
+        IncidMatrixDirWeight graph = randomWeightedGraph(n, 10, 100, 11);
+
+        ShortestPaths binary = graph.getDijkstraPaths(0, false);
+        ShortestPaths pairing = graph.getDijkstraPaths(0, true);
+
+        assertArrayEquals(binary.distances(), pairing.distances());
+        for (int v = 0; v < n; v++) {
+            int[] path = pairing.path(v);
+            if (path == null) continue;
+            assertEquals(0, path[0]);
+            assertEquals(v, path[path.length - 1]);
+        }
+        assertEquals(0D, binary.distance(0));
+    }
+
+    @Test
+    void shortestPath() {
+        loadDataCyclicGraph();
+        matrix.addVertex();
+
+        for (boolean bidirectional : new boolean[]{false, true}) {
+            Route route = matrix.shortestPath(0, 2, bidirectional);
+            assertEquals(7D, route.distance());
+            assertArrayEquals(new int[]{0, 1, 2}, route.path());
+
+            Route missing = matrix.shortestPath(3, 0, bidirectional);
+            assertFalse(missing.exists());
+            assertEquals(IncidMatrixDirWeight.INFINITY, missing.distance());
+            assertArrayEquals(new int[]{4}, matrix.shortestPath(4, 4, bidirectional).path());
+        }
+        assertThrows(IllegalArgumentException.class, () -> matrix.shortestPath(0, 5));
+    }
+
+    @Test
+    void shortestPathMatchesDijkstra() {
+        int n = 2_000;
+        IncidMatrixDirWeight graph = randomWeightedGraph(n, 4, 100, 5);
+
+        ShortestPaths all = graph.getDijkstraPaths(0, false);
+        for (int target = 0; target < n; target += 7) {
+            Route single = graph.shortestPath(0, target);
+            Route both = graph.shortestPath(0, target, true);
+            assertEquals(all.distance(target), single.distance());
+            assertEquals(all.distance(target), both.distance());
+            if (both.exists()) {
+                assertEquals(both.distance(), pathWeight(graph, both.path()));
+            }
+        }
+    }
+
+    @Test
+    void aStar() {
+        // griglia con pesi >= 1: la distanza di Manhattan e' una stima ammissibile
+        int side = 40;
+        Random random = new Random(3);
+        GraphBuilder builder = new GraphBuilder(side * side);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                int v = y * side + x;
+                if (x + 1 < side) builder.addEdge(v, v + 1, 1 + random.nextInt(3)).addEdge(v + 1, v, 1 + random.nextInt(3));
+                if (y + 1 < side) builder.addEdge(v, v + side, 1 + random.nextInt(3)).addEdge(v + side, v, 1 + random.nextInt(3));
+            }
+        }
+        IncidMatrixDirWeight grid = builder.buildWeightedGraph();
+        int source = 5 * side + 5;
+        int target = 30 * side + 25;
+
+        Route dijkstra = grid.shortestPath(source, target);
+        Route aStar = grid.aStar(source, target, v -> Math.abs(v % side - 25) + Math.abs(v / side - 30));
+
+        assertEquals(dijkstra.distance(), aStar.distance());
+        assertEquals(source, aStar.path()[0]);
+        assertEquals(target, aStar.path()[aStar.path().length - 1]);
+        assertTrue(aStar.settled() < dijkstra.settled());
+        assertEquals(dijkstra.settled(), grid.aStar(source, target, v -> 0).settled());
+    }
+
+    @Test
+    void landmarks() {
+        int n = 3_000;
+        IncidMatrixDirWeight graph = randomWeightedGraph(n, 4, 50, 9);
+        double[] expected = new double[n];
+        for (int target = 0; target < n; target += 13) {
+            expected[target] = graph.shortestPath(1, target).distance();
+        }
+
+        for (Landmarks.Strategy strategy : Landmarks.Strategy.values()) {
+            for (boolean compact : new boolean[]{false, true}) {
+                Landmarks landmarks = graph.prepareLandmarks(8, strategy, compact);
+                assertEquals(8, landmarks.size());
+                assertSame(landmarks, graph.getLandmarks());
+                for (int target = 0; target < n; target += 13) {
+                    assertTrue(landmarks.lowerBound(1, target) <= expected[target]);
+                    assertEquals(expected[target], graph.shortestPath(1, target).distance());
+                }
+            }
+        }
+
+        int[] path = graph.shortestPath(1, 13).path();
+        graph.setEdgeWeight(EdgeKey.pack(path[0], path[1]), 1);
+        assertNull(graph.getLandmarks());
+        graph.prepareLandmarks(2, Landmarks.Strategy.FARTHEST, true);
+        graph.addEdge(EdgeKey.pack(0, 0));
+        assertNull(graph.getLandmarks());
+        assertThrows(IllegalArgumentException.class, () -> graph.prepareLandmarks(0, Landmarks.Strategy.AVOID, false));
+    }
+
+    @Test
+    void getBellmanFordShortestPaths() {
+        loadDataCyclicGraph();
+        matrix.setEdgeWeight(Edge.getEdgeByVertexes(1, 2), -1);
+
+        WeightedGraph tree = matrix.getBellmanFordShortestPaths(0);
+        assertEquals(Set.of(1, 3), tree.getAdjacent(0));
+        assertEquals(-1D, tree.getEdgeWeight(Edge.getEdgeByVertexes(1, 2)));
+        for (boolean queue : new boolean[]{false, true}) {
+            ShortestPaths paths = matrix.getBellmanFordPaths(0, queue);
+            assertFalse(paths.hasNegativeCycle());
+            assertArrayEquals(new double[]{0, 2, 1, 1}, paths.distances());
+        }
+
+        matrix.setEdgeWeight(Edge.getEdgeByVertexes(2, 0), -2);
+        for (boolean queue : new boolean[]{false, true}) {
+            int[] cycle = matrix.getBellmanFordPaths(0, queue).negativeCycle();
+            assertEquals(3, cycle.length);
+            int start = cycle[0];
+            assertArrayEquals(new int[]{start, (start + 1) % 3, (start + 2) % 3}, cycle);
+        }
+        NegativeCycleException exception = assertThrows(NegativeCycleException.class, () -> matrix.getBellmanFordShortestPaths(0));
+        assertEquals(3, exception.getCycle().length);
+        // il ciclo non si raggiunge da 3
+        assertFalse(matrix.getBellmanFordPaths(3, true).hasNegativeCycle());
+    }
+
+    @Test
+    void bellmanFordMatchesDijkstra() {
+        int n = 1_000;
+        IncidMatrixDirWeight graph = randomWeightedGraph(n, 5, 100, 17);
+
+        double[] expected = graph.getDijkstraPaths(0, false).distances();
+        assertArrayEquals(expected, graph.getBellmanFordPaths(0, false).distances());
+        assertArrayEquals(expected, graph.getBellmanFordPaths(0, true).distances());
+    }
+
+    @Test
+    void deltaSteppingMatchesDijkstra() {
+        int n = 5_000;
+        IncidMatrixDirWeight graph = randomWeightedGraph(n, 5, 100, 23);
+        ShortestPaths expected = graph.getDijkstraPaths(0, false);
+
+        // con 0.001 l'anello dei secchi e' piu' corto di peso massimo / delta
+        for (double delta : new double[]{0.001, 1, 30, 1000}) {
+            ShortestPaths result = graph.getDeltaSteppingPaths(0, delta, ForkJoinPool.commonPool());
+            assertArrayEquals(expected.distances(), result.distances());
+            for (int v = 1; v < n; v++) {
+                int p = result.predecessor(v);
+                if (p == ShortestPaths.NONE) {
+                    assertFalse(result.hasPath(v));
+                } else {
+                    assertEquals(result.distance(v), result.distance(p) + graph.getEdgeWeight(EdgeKey.pack(p, v)));
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> graph.getDeltaSteppingPaths(0, 0, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    void getFloydWarshallShortestPaths() {
+        loadDataCyclicGraph();
+
+        WeightedGraph distances = matrix.getFloydWarshallShortestPaths();
+        assertEquals(Set.of(0, 1, 3), distances.getAdjacent(2));
+        assertEquals(7D, distances.getEdgeWeight(Edge.getEdgeByVertexes(0, 2)));
+        assertEquals(4D, distances.getEdgeWeight(Edge.getEdgeByVertexes(2, 3)));
+        assertEquals(Set.of(), distances.getAdjacent(3));
+
+        AllPairsPaths paths = matrix.getFloydWarshallPaths(null);
+        assertArrayEquals(new int[]{2, 0, 3}, paths.path(2, 3));
+        assertNull(paths.path(3, 0));
+
+        matrix.setEdgeWeight(Edge.getEdgeByVertexes(2, 0), -8);
+        assertThrows(NegativeCycleException.class, () -> matrix.getFloydWarshallShortestPaths());
+    }
+
+    @Test
+    void floydWarshallMatchesDijkstra() {
+        // piu' vertici di un blocco, e non un multiplo
+        int n = 150;
+        IncidMatrixDirWeight graph = randomWeightedGraph(n, 4, 100, 31);
+
+        AllPairsPaths sequential = graph.getFloydWarshallPaths(null);
+        AllPairsPaths parallel = graph.getFloydWarshallPaths(ForkJoinPool.commonPool());
+        assertArrayEquals(sequential.distances(), parallel.distances());
+        for (int source = 0; source < n; source++) {
+            double[] expected = graph.getDijkstraPaths(source, false).distances();
+            for (int target = 0; target < n; target++) {
+                assertEquals(expected[target], sequential.distance(source, target));
+                int[] path = sequential.path(source, target);
+                if (path != null) {
+                    assertEquals(expected[target], pathWeight(graph, path));
+                }
+            }
+        }
+    }
+
+    @Test
+    void johnsonMatchesBellmanFord() throws IOException {
+        // pesi w = base + p(u) - p(v): ci sono archi negativi ma ogni ciclo ha peso positivo
+        int n = 120;
+        Random random = new Random(37);
+        int[] p = new int[n];
+        for (int v = 0; v < n; v++) {
+            p[v] = random.nextInt(50);
+        }
+        GraphBuilder builder = new GraphBuilder(n);
+        for (int i = 0; i < 4 * n; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            builder.addEdge(u, v, 1 + random.nextInt(20) + p[u] - p[v]);
+        }
+        IncidMatrixDirWeight graph = builder.buildWeightedGraph();
+
+        double[][] rows = new double[n][];
+        graph.forEachJohnsonRow(ForkJoinPool.commonPool(), (source, distance, predecessor) -> rows[source] = distance);
+        for (int source = 0; source < n; source++) {
+            assertArrayEquals(graph.getBellmanFordPaths(source, false).distances(), rows[source]);
+        }
+
+        Path file = Files.createTempFile("johnson", ".bin");
+        try {
+            graph.writeJohnsonDistances(file, ForkJoinPool.commonPool());
+            assertEquals((long) n * n * Double.BYTES, Files.size(file));
+            DoubleBuffer written = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            for (int source = 0; source < n; source++) {
+                for (int target = 0; target < n; target++) {
+                    assertEquals(rows[source][target], written.get(source * n + target));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        graph.addEdge(Edge.getEdgeByVertexes(1, 0));
+        graph.setEdgeWeight(Edge.getEdgeByVertexes(1, 0), -1000);
+        graph.addEdge(Edge.getEdgeByVertexes(0, 1));
+        graph.setEdgeWeight(Edge.getEdgeByVertexes(0, 1), 0);
+        assertThrows(NegativeCycleException.class, () -> graph.forEachJohnsonRow(ForkJoinPool.commonPool(), (source, distance, predecessor) -> { }));
+    }
+
+    /** Somma dei pesi degli archi tra vertici consecutivi del cammino */
+    private static double pathWeight(IncidMatrixDirWeight graph, int[] path) {
+        double length = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            length += graph.getEdgeWeight(EdgeKey.pack(path[i], path[i + 1]));
+        }
+        return length;
+    }
+
+    private static double totalWeight(WeightedGraph graph) {
+        IncidMatrixDirWeight tree = (IncidMatrixDirWeight) graph;
+        double total = 0;
+        for (int u = 0; u < tree.size(); u++) {
+            for (int v : tree.getAdjacent(u)) {
+                total += tree.getEdgeWeight(EdgeKey.pack(u, v));
+            }
+        }
+        return total;
+    }
+
+    @Test
+    void getPrimAndKruskalMST() {
+        loadDataCyclicGraph();
+
+        WeightedGraph prim = matrix.getPrimMST(2);
+        assertEquals(Set.of(1, 3), prim.getAdjacent(0));
+        assertEquals(Set.of(0), prim.getAdjacent(2));
+        assertEquals(3D, prim.getEdgeWeight(Edge.getEdgeByVertexes(2, 0)));
+        assertEquals(6D, totalWeight(prim));
+        assertEquals(6D, totalWeight(matrix.getKruskalMST()));
+        assertThrows(IllegalArgumentException.class, () -> matrix.getPrimMST(4));
+
+        // vertice isolato: Prim copre la sua componente, Kruskal da' una foresta
+        matrix.addVertex();
+        assertEquals(0D, totalWeight(matrix.getPrimMST(4)));
+        assertEquals(Set.of(), matrix.getPrimMST(4).getAdjacent(0));
+        assertEquals(6D, totalWeight(matrix.getKruskalMST()));
+    }
+
+    @Test
+    void primMatchesKruskal() {
+        int n = 500;
+        Random random = new Random(41);
+        GraphBuilder builder = new GraphBuilder(n);
+        for (int v = 1; v < n; v++) {
+            builder.addEdge(random.nextInt(v), v, random.nextInt(1000));
+        }
+        for (int i = 0; i < 5 * n; i++) {
+            // pesi che diventano lo stesso float, ma con somme esatte in double
+            builder.addEdge(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(4) * 0x1p-30);
+        }
+        IncidMatrixDirWeight graph = builder.buildWeightedGraph();
+
+        WeightedGraph prim = graph.getPrimMST(0);
+        WeightedGraph kruskal = graph.getKruskalMST();
+        assertEquals(n - 1, prim.getEdges().size());
+        assertEquals(n - 1, kruskal.getEdges().size());
+        assertEquals(totalWeight(prim), totalWeight(kruskal));
+    }
+
+    @Test
+    void boruvkaMatchesKruskal() {
+        // due blocchi separati e un vertice isolato
+        int n = 601;
+        Random random = new Random(43);
+        GraphBuilder builder = new GraphBuilder(n);
+        for (int i = 0; i < 6 * n; i++) {
+            int block = random.nextInt(2) * 300;
+            builder.addEdge(block + random.nextInt(300), block + random.nextInt(300), random.nextInt(50) + random.nextInt(4) * 0x1p-30);
+        }
+        IncidMatrixDirWeight graph = builder.buildWeightedGraph();
+
+        WeightedGraph boruvka = graph.getBoruvkaMST(ForkJoinPool.commonPool());
+        WeightedGraph kruskal = graph.getKruskalMST();
+        assertEquals(n - graph.connectedComponents().size(), boruvka.getEdges().size());
+        assertEquals(totalWeight(kruskal), totalWeight(boruvka));
+        assertEquals(Set.of(), boruvka.getAdjacent(600));
+    }
+
+    @Test
+    void writeAndMapWeightedGraph() throws IOException {
+        loadDataCyclicGraph();
+
+        Path file = Files.createTempFile("graph", ".bin");
+        try {
+            matrix.writeTo(file);
+            MappedGraph mapped = MappedGraph.open(file);
+            try {
+                assertTrue(mapped.checksumMatches());
+                assertTrue(mapped.isWeighted());
+                assertEquals(4, mapped.size());
+                assertEquals(5, mapped.edgeCount());
+                for (int v = 0; v < 4; v++) {
+                    assertEquals(matrix.getAdjacent(v), mapped.getAdjacent(v));
+                }
+                assertEquals(3D, mapped.getEdgeWeight(Edge.getEdgeByVertexes(2, 0)));
+                assertEquals(7D, mapped.getEdgeWeight(EdgeKey.pack(2, 3)));
+                assertFalse(mapped.isAdjacent(3, 2));
+                assertThrows(NoSuchElementException.class, () -> mapped.getEdgeWeight(EdgeKey.pack(3, 2)));
+                assertThrows(IllegalArgumentException.class, () -> mapped.getEdgeWeight(EdgeKey.pack(4, 0)));
+
+                IncidMatrixDirWeight copy = mapped.toWeightedGraph();
+                assertEquals(matrix.getEdges(), copy.getEdges());
+                assertEquals(5D, copy.getEdgeWeight(Edge.getEdgeByVertexes(1, 2)));
+            } finally {
+                mapped.close();
+            }
+
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length - 9] ^= 1;
+            Files.write(file, bytes);
+            MappedGraph corrupted = MappedGraph.open(file);
+            try {
+                assertFalse(corrupted.checksumMatches());
+            } finally {
+                corrupted.close();
+            }
+
+            Files.write(file, Arrays.copyOf(bytes, 20));
+            assertThrows(IOException.class, () -> MappedGraph.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Confronto dei tempi tra le componenti fortemente connesse sequenziali (Pearce) e quelle
+ * parallele FW-BW su un grafo casuale, con un numero crescente di thread.
+ * Non e' un test: si lancia a mano con
+ * {@code java SccBenchmark [vertici] [archi per vertice]}.
+ */
+public class SccBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int degree = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        Random random = new Random(1);
+        GraphBuilder builder = new GraphBuilder(n);
+        for (long i = 0; i < (long) degree * n; i++) {
+            builder.addEdge(random.nextInt(n), random.nextInt(n));
+        }
+        IncidMatrixDir graph = builder.buildGraph();
+        System.out.printf("%d vertici, %d archi%n", n, (long) degree * n);
+
+        StronglyConnectedComponents expected = graph.getStronglyConnectedComponents();
+        System.out.printf("sequenziale: %d componenti, %.1f ms%n", expected.count(), best(() -> graph.getStronglyConnectedComponents()));
+
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            StronglyConnectedComponents result = graph.getStronglyConnectedComponents(pool);
+            if (result.count() != expected.count()) throw new AssertionError("numero di componenti diverso");
+            System.out.printf("parallelo, %d thread: %.1f ms%n", threads, best(() -> graph.getStronglyConnectedComponents(pool)));
+            pool.shutdown();
+        }
+    }
+
+    /** Miglior tempo in millisecondi su ROUNDS esecuzioni */
+    private static double best(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+}